@@ -0,0 +1,36 @@
+package Codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts messages to and from a compact binary form so they can leave the heap.
+ * Implementations write into and read from caller-provided buffers so no intermediate byte arrays are needed.
+ *
+ * @param <T> the type of the messages.
+ */
+public interface Codec<T> {
+
+    /**
+     * Returns the exact number of bytes {@link #encode} will write for the given value.
+     *
+     * @param value the value to be encoded.
+     * @return the encoded size in bytes.
+     */
+    int encodedSize(T value);
+
+    /**
+     * Writes the value at the buffer's position, advancing the position by {@link #encodedSize} bytes.
+     *
+     * @param value  the value to be encoded.
+     * @param buffer the buffer to write to.
+     */
+    void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Reads a value from the buffer's position, advancing the position past it.
+     *
+     * @param buffer the buffer to read from.
+     * @return the decoded value.
+     */
+    T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,57 @@
+package Codec;
+
+import DataStructures.Graph.CsrGraph;
+import Model.Task.CoordinateTask;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps message classes to the codecs that serialize them.
+ * Topics that leave the heap and were not given a codec of their own use the codec registered for their message
+ * class. Generic message types are registered under their raw class, e.g. {@code HashMap.class} for graphs.
+ */
+public class CodecRegistry {
+    private final ConcurrentHashMap<Class<?>, Codec<?>> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty registry.
+     */
+    public CodecRegistry() {
+    }
+
+    /**
+     * Constructs a registry holding the codecs of the tasks this project publishes: coordinate tasks, and graphs in
+     * compressed sparse row or adjacency-list form.
+     *
+     * @return the registry.
+     */
+    public static CodecRegistry withDefaults() {
+        CodecRegistry registry = new CodecRegistry();
+        registry.register(CoordinateTask.class, new CoordinateTaskCodec());
+        registry.register(CsrGraph.class, new CsrGraphCodec());
+        registry.register(HashMap.class, new GraphCodec());
+        return registry;
+    }
+
+    /**
+     * Registers the codec of a message class, replacing any codec registered for it before.
+     *
+     * @param type  the class of the messages.
+     * @param codec the codec serializing them.
+     * @param <T>   the type of the messages.
+     */
+    public <T> void register(Class<? super T> type, Codec<T> codec) {
+        codecs.put(type, codec);
+    }
+
+    /**
+     * Returns the codec registered for a message class.
+     *
+     * @param type the class of the messages.
+     * @return the codec, or null if none is registered.
+     */
+    public Codec<?> find(Class<?> type) {
+        return codecs.get(type);
+    }
+}
@@ -0,0 +1,40 @@
+package Codec;
+
+import Model.Task.CoordinateTask;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * Encodes a coordinate task as its point's coordinates followed by the number of other points and their coordinates,
+ * all as raw doubles: {@code [x][y][int n][x0][y0]...[xn-1][yn-1]}.
+ */
+public class CoordinateTaskCodec implements Codec<CoordinateTask> {
+    private static final int POINT_SIZE = 2 * Double.BYTES;
+
+    @Override
+    public int encodedSize(CoordinateTask task) {
+        return POINT_SIZE + Integer.BYTES + task.getPointCount() * POINT_SIZE;
+    }
+
+    @Override
+    public void encode(CoordinateTask task, ByteBuffer buffer) {
+        DoubleBuffer coordinates = task.getCoordinates();
+        buffer.putDouble(coordinates.get(0)).putDouble(coordinates.get(1));
+        buffer.putInt(task.getPointCount());
+        buffer.asDoubleBuffer().put(coordinates.position(2));
+        buffer.position(buffer.position() + task.getPointCount() * POINT_SIZE);
+    }
+
+    @Override
+    public CoordinateTask decode(ByteBuffer buffer) {
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        double[] coordinates = new double[2 * (buffer.getInt() + 1)];
+        coordinates[0] = x;
+        coordinates[1] = y;
+        buffer.asDoubleBuffer().get(coordinates, 2, coordinates.length - 2);
+        buffer.position(buffer.position() + (coordinates.length - 2) * Double.BYTES);
+        return new CoordinateTask(coordinates);
+    }
+}
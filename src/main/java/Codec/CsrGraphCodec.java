@@ -0,0 +1,45 @@
+package Codec;
+
+import DataStructures.Graph.CsrGraph;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Encodes a compressed sparse row graph as its vertex and edge counts followed by its two arrays:
+ * {@code [int n][int e][offsets: n + 1 ints][targets: e ints]}. The arrays are copied in bulk.
+ */
+public class CsrGraphCodec implements Codec<CsrGraph> {
+
+    @Override
+    public int encodedSize(CsrGraph graph) {
+        return Integer.BYTES * (3 + graph.getVertexCount() + graph.getEdgeCount());
+    }
+
+    @Override
+    public void encode(CsrGraph graph, ByteBuffer buffer) {
+        buffer.putInt(graph.getVertexCount()).putInt(graph.getEdgeCount());
+        putInts(graph.getOffsets(), buffer);
+        putInts(graph.getTargets(), buffer);
+    }
+
+    @Override
+    public CsrGraph decode(ByteBuffer buffer) {
+        int[] offsets = new int[buffer.getInt() + 1];
+        int[] targets = new int[buffer.getInt()];
+        getInts(offsets, buffer);
+        getInts(targets, buffer);
+        return new CsrGraph(offsets, targets);
+    }
+
+    private static void putInts(IntBuffer values, ByteBuffer buffer) {
+        int length = values.remaining();
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    private static void getInts(int[] values, ByteBuffer buffer) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+}
@@ -0,0 +1,50 @@
+package Codec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes an adjacency-list graph as its vertex count followed by each vertex, its degree and its neighbours:
+ * {@code [int n]([int vertex][int degree][int neighbour]...)...}.
+ */
+public class GraphCodec implements Codec<HashMap<Integer, ArrayList<Integer>>> {
+
+    @Override
+    public int encodedSize(HashMap<Integer, ArrayList<Integer>> graph) {
+        int size = Integer.BYTES;
+        for (ArrayList<Integer> neighbours : graph.values()) {
+            size += 2 * Integer.BYTES + neighbours.size() * Integer.BYTES;
+        }
+        return size;
+    }
+
+    @Override
+    public void encode(HashMap<Integer, ArrayList<Integer>> graph, ByteBuffer buffer) {
+        buffer.putInt(graph.size());
+        for (Map.Entry<Integer, ArrayList<Integer>> entry : graph.entrySet()) {
+            ArrayList<Integer> neighbours = entry.getValue();
+            buffer.putInt(entry.getKey()).putInt(neighbours.size());
+            for (int i = 0; i < neighbours.size(); i++) {
+                buffer.putInt(neighbours.get(i));
+            }
+        }
+    }
+
+    @Override
+    public HashMap<Integer, ArrayList<Integer>> decode(ByteBuffer buffer) {
+        int vertices = buffer.getInt();
+        HashMap<Integer, ArrayList<Integer>> graph = HashMap.newHashMap(vertices);
+        for (int v = 0; v < vertices; v++) {
+            int vertex = buffer.getInt();
+            int degree = buffer.getInt();
+            ArrayList<Integer> neighbours = new ArrayList<>(degree);
+            for (int i = 0; i < degree; i++) {
+                neighbours.add(buffer.getInt());
+            }
+            graph.put(vertex, neighbours);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,151 @@
+package DataStructures.Graph;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A directed graph in compressed sparse row form: the neighbours of every vertex are stored back to back in one
+ * {@code int[]} of targets, and an {@code int[]} of offsets gives where each vertex's neighbours start.
+ * Vertices are numbered from 0; in the text format of the input files vertex {@code v} is written as {@code v + 1}.
+ * A graph is two arrays however many vertices and edges it has, with no boxed values or per-vertex objects. The arrays
+ * are either on the heap or views of a memory-mapped binary input file, in which case they are never copied.
+ */
+public class CsrGraph {
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private long arrivalNanos = -1;
+
+    /**
+     * Constructs a graph over the given arrays, which are used as they are and not copied.
+     *
+     * @param offsets the start of each vertex's neighbours in targets, followed by the number of edges.
+     * @param targets the neighbours of every vertex, in vertex order.
+     * @throws IllegalArgumentException if the arrays do not describe a graph.
+     */
+    public CsrGraph(int[] offsets, int[] targets) {
+        this(IntBuffer.wrap(offsets), IntBuffer.wrap(targets));
+    }
+
+    /**
+     * Constructs a graph over the remaining values of the given buffers, which are used as they are and not copied.
+     *
+     * @param offsets the start of each vertex's neighbours in targets, followed by the number of edges.
+     * @param targets the neighbours of every vertex, in vertex order.
+     * @throws IllegalArgumentException if the buffers do not describe a graph.
+     */
+    public CsrGraph(IntBuffer offsets, IntBuffer targets) {
+        offsets = offsets.slice();
+        targets = targets.slice();
+        int vertices = offsets.limit() - 1;
+        if (vertices < 0 || offsets.get(0) != 0 || offsets.get(vertices) != targets.limit()) {
+            throw new IllegalArgumentException("Offsets must run from 0 to the number of edges");
+        }
+        for (int v = 0; v < vertices; v++) {
+            if (offsets.get(v) > offsets.get(v + 1)) {
+                throw new IllegalArgumentException("Offsets must not decrease at vertex " + v);
+            }
+        }
+        for (int i = 0; i < targets.limit(); i++) {
+            int target = targets.get(i);
+            if (target < 0 || target >= vertices) {
+                throw new IllegalArgumentException("Edge to unknown vertex " + target);
+            }
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Converts an adjacency-list graph whose vertices are labelled 1 to n.
+     *
+     * @param graph the graph represented as a HashMap of nodes and their adjacent nodes.
+     * @return the graph in compressed sparse row form.
+     */
+    public static CsrGraph fromAdjacencyList(HashMap<Integer, ArrayList<Integer>> graph) {
+        int vertices = graph.size();
+        int[] offsets = new int[vertices + 1];
+        for (int v = 0; v < vertices; v++) {
+            List<Integer> neighbours = graph.get(v + 1);
+            if (neighbours == null) {
+                throw new IllegalArgumentException("Vertices must be labelled 1 to " + vertices);
+            }
+            offsets[v + 1] = offsets[v] + neighbours.size();
+        }
+        int[] targets = new int[offsets[vertices]];
+        for (int v = 0; v < vertices; v++) {
+            List<Integer> neighbours = graph.get(v + 1);
+            for (int i = 0; i < neighbours.size(); i++) {
+                targets[offsets[v] + i] = neighbours.get(i) - 1;
+            }
+        }
+        return new CsrGraph(offsets, targets);
+    }
+
+    public int getVertexCount() {
+        return offsets.limit() - 1;
+    }
+
+    public int getEdgeCount() {
+        return targets.limit();
+    }
+
+    /**
+     * @param vertex a vertex.
+     * @return the number of neighbours of the vertex.
+     */
+    public int getDegree(int vertex) {
+        return offsets.get(vertex + 1) - offsets.get(vertex);
+    }
+
+    /**
+     * @return a read-only view of the start of each vertex's neighbours in the targets, followed by the number of
+     *         edges. Not a copy.
+     */
+    public IntBuffer getOffsets() {
+        return offsets.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a read-only view of the neighbours of every vertex, in vertex order. Not a copy.
+     */
+    public IntBuffer getTargets() {
+        return targets.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the time, as {@link System#nanoTime}, at which the graph arrived in the input, or -1 if it was not
+     *         stamped.
+     */
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
+    /**
+     * Stamps the graph with the time its input arrived, e.g. when a {@link Input.TailingReader} found it complete, so
+     * its latency can be measured once it has been processed. The stamp is not part of the graph's value.
+     *
+     * @param arrivalNanos the arrival time as {@link System#nanoTime}.
+     */
+    public void setArrivalNanos(long arrivalNanos) {
+        this.arrivalNanos = arrivalNanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CsrGraph)) {
+            return false;
+        }
+        CsrGraph other = (CsrGraph) o;
+        return offsets.equals(other.offsets) && targets.equals(other.targets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * offsets.hashCode() + targets.hashCode();
+    }
+}
@@ -1,5 +1,6 @@
 package DataStructures.Graph;
 
+import java.nio.IntBuffer;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -130,6 +131,29 @@ public class GraphUtils<T> {
         return graphString;
     }
 
+    /**
+     * Converts a graph in compressed sparse row form into an array of strings, in the same format as the
+     * adjacency-list version: vertex {@code v} is written as {@code v + 1}.
+     *
+     * @param graph the graph.
+     * @return an array of strings representing the graph, one per vertex.
+     */
+    public static String[] convertGraphToString(CsrGraph graph) {
+        IntBuffer offsets = graph.getOffsets();
+        IntBuffer targets = graph.getTargets();
+        String[] graphString = new String[graph.getVertexCount()];
+        StringBuilder builder = new StringBuilder();
+        for (int v = 0; v < graphString.length; v++) {
+            builder.setLength(0);
+            builder.append(v + 1);
+            for (int i = offsets.get(v); i < offsets.get(v + 1); i++) {
+                builder.append(", ").append(targets.get(i) + 1);
+            }
+            graphString[v] = builder.toString();
+        }
+        return graphString;
+    }
+
     /**
      * Determines whether a given graph has a cycle.
      *
@@ -197,4 +221,85 @@ public class GraphUtils<T> {
         return components.size() == 1;
     }
 
+    /**
+     * Determines whether a graph in compressed sparse row form has a cycle, with the same breadth-first search as
+     * the adjacency-list version: starting from the first vertex with neighbours, a vertex reached a second time
+     * counts as a cycle, and a graph without edges is reported as cyclic.
+     *
+     * @param graph the graph.
+     * @return true if the graph has a cycle, false otherwise.
+     */
+    public static boolean hasCycle(CsrGraph graph) {
+        IntBuffer offsets = graph.getOffsets();
+        IntBuffer targets = graph.getTargets();
+        int vertices = graph.getVertexCount();
+        int start = 0;
+        while (start < vertices && offsets.get(start) == offsets.get(start + 1)) {
+            start++;
+        }
+        if (start == vertices) {
+            return true;
+        }
+        boolean[] visited = new boolean[vertices];
+        // Every visited vertex enqueues its neighbours once, so the queue never holds more than every edge plus the
+        // start before a vertex is reached twice.
+        int[] queue = new int[graph.getEdgeCount() + 1];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int node = queue[head++];
+            if (visited[node]) {
+                return true;
+            }
+            visited[node] = true;
+            for (int i = offsets.get(node); i < offsets.get(node + 1); i++) {
+                queue[tail++] = targets.get(i);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a graph in compressed sparse row form is connected, ignoring edge direction, using a union-find
+     * over an array of parents.
+     *
+     * @param graph the graph.
+     * @return true if the graph is connected, false otherwise.
+     */
+    public static boolean isConnected(CsrGraph graph) {
+        IntBuffer offsets = graph.getOffsets();
+        IntBuffer targets = graph.getTargets();
+        int vertices = graph.getVertexCount();
+        if (vertices == 0) {
+            return false;
+        }
+        int[] parent = new int[vertices];
+        for (int v = 0; v < vertices; v++) {
+            parent[v] = v;
+        }
+        int components = vertices;
+        for (int v = 0; v < vertices; v++) {
+            for (int i = offsets.get(v); i < offsets.get(v + 1); i++) {
+                int rootA = find(parent, v);
+                int rootB = find(parent, targets.get(i));
+                if (rootA != rootB) {
+                    parent[rootB] = rootA;
+                    components--;
+                }
+            }
+        }
+        return components == 1;
+    }
+
+    /**
+     * Finds the root of a vertex, halving the path to it along the way.
+     */
+    private static int find(int[] parent, int vertex) {
+        while (parent[vertex] != vertex) {
+            parent[vertex] = parent[parent[vertex]];
+            vertex = parent[vertex];
+        }
+        return vertex;
+    }
 }
@@ -0,0 +1,585 @@
+package DataStructures.Log;
+
+import Codec.Codec;
+import DataStructures.Queue.MessageQueue;
+import DataStructures.Queue.QueueMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * An append-only log of messages kept in segmented, memory-mapped files, consumed by a single group of competing
+ * readers that commit offsets as they finish with messages.
+ * Every appended message gets the next offset. Appends return once the message is on disk: a publisher that finds no
+ * flush in progress forces every segment written since the last flush, and publishers arriving meanwhile wait for
+ * that flush or share the next one, so one fsync covers every message appended while the previous one ran.
+ * Readers are handed messages in offset order and acknowledge them when processed. The committed offset is the
+ * lowest offset not yet acknowledged; it is stored in the log directory, and a log reopened on the same directory
+ * resumes reading from it, so after a crash only the messages that were not fully processed are delivered again.
+ * Segments that lie entirely below the committed offset are deleted.
+ * The log is never full, so publishers only wait for the disk.
+ *
+ * @param <T> the type of the messages in the log.
+ */
+public class DurableLog<T> implements MessageQueue<T> {
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String OFFSET_FILE = "committed.offset";
+
+    private final Path directory;
+    private final Codec<T> codec;
+    private final ArrayList<LogSegment> segments = new ArrayList<>();
+    private final ArrayList<LogSegment> unflushed = new ArrayList<>();
+    private LogSegment active;
+    private long nextOffset;
+    private long flushedOffset;
+    private boolean flushing = false;
+
+    private LogSegment readSegment;
+    private int readPosition;
+    private long readOffset;
+    private long committedOffset;
+    private final PriorityQueue<Long> acknowledged = new PriorityQueue<>();
+    private final FileChannel offsetChannel;
+    private final MappedByteBuffer offsetBuffer;
+
+    private volatile boolean isRunning = true;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final QueueMetrics metrics = new QueueMetrics();
+
+    /**
+     * Opens the log stored in the given directory, creating it if it does not exist.
+     * Existing segments are scanned up to their last complete record, and reading resumes from the committed offset.
+     *
+     * @param directory the directory holding the log's segments and committed offset.
+     * @param codec     the codec used to write messages to the log and read them back.
+     */
+    public DurableLog(Path directory, Codec<T> codec) {
+        this.directory = directory;
+        this.codec = codec;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(file -> file.getFileName().toString())
+                        .filter(file -> file.endsWith(".log"))
+                        .sorted()
+                        .forEach(file -> segments.add(LogSegment.open(directory,
+                                Long.parseLong(file.substring(0, file.length() - 4)), SEGMENT_SIZE)));
+            }
+            this.offsetChannel = FileChannel.open(directory.resolve(OFFSET_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.offsetBuffer = offsetChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (segments.isEmpty()) {
+            segments.add(LogSegment.open(directory, 0, SEGMENT_SIZE));
+        }
+        this.active = segments.get(segments.size() - 1);
+        this.nextOffset = active.getEndOffset();
+        this.flushedOffset = nextOffset;
+        this.committedOffset = Math.max(segments.get(0).getBaseOffset(),
+                Math.min(offsetBuffer.getLong(0), nextOffset));
+        this.readOffset = committedOffset;
+        this.readSegment = segments.get(0);
+        for (LogSegment segment : segments) {
+            if (segment.getBaseOffset() <= committedOffset) {
+                readSegment = segment;
+            }
+        }
+        this.readPosition = readSegment.positionOf(committedOffset);
+    }
+
+    /**
+     * Appends the specified value to the log and waits until it is on disk.
+     * Values added after the log has been stopped are discarded.
+     *
+     * @param value the value to be added to the log.
+     */
+    @Override
+    public void addToQueue(T value) {
+        tryAdd(value);
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) {
+        return tryAdd(value);
+    }
+
+    @Override
+    public boolean tryAdd(T value) {
+        long end;
+        lock.lock();
+        try {
+            if (!isRunning) {
+                return false;
+            }
+            append(value);
+            end = nextOffset;
+            metrics.recordEnqueue(1, nextOffset - readOffset);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        sync(end);
+        return true;
+    }
+
+    /**
+     * Appends every value and waits for a single flush covering all of them.
+     *
+     * @param values the values to be added to the log.
+     */
+    @Override
+    public void addAll(Collection<? extends T> values) {
+        long end;
+        lock.lock();
+        try {
+            if (!isRunning) {
+                return;
+            }
+            for (T value : values) {
+                append(value);
+            }
+            end = nextOffset;
+            metrics.recordEnqueue(values.size(), nextOffset - readOffset);
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        sync(end);
+    }
+
+    /**
+     * Writes the value to the active segment, rolling to a new segment if it does not fit. Must hold the lock.
+     */
+    private void append(T value) {
+        if (!active.append(codec, value)) {
+            int size = Math.max(SEGMENT_SIZE, codec.encodedSize(value) + Integer.BYTES);
+            if (active.getEndOffset() == active.getBaseOffset()) {
+                // An empty segment would share its file name with the new one.
+                segments.remove(active);
+                active.delete();
+            } else {
+                unflushed.add(active);
+            }
+            boolean readingActive = readSegment == active;
+            active = LogSegment.open(directory, nextOffset, size);
+            segments.add(active);
+            if (readingActive && readOffset == nextOffset) {
+                readSegment = active;
+                readPosition = 0;
+            }
+            active.append(codec, value);
+        }
+        nextOffset++;
+    }
+
+    /**
+     * Waits until every offset below the given one is on disk, flushing the log if no other thread is doing so.
+     * The flush covers everything appended by the time it starts, so concurrent publishers share one fsync.
+     * If the flush fails, its segments stay pending and the next flush forces them again.
+     *
+     * @param endOffset the offset after the last message that must be durable.
+     * @throws UncheckedIOException if the segments cannot be forced to disk.
+     */
+    public void sync(long endOffset) {
+        lock.lock();
+        try {
+            while (flushedOffset < endOffset) {
+                if (flushing) {
+                    flushed.await();
+                    continue;
+                }
+                flushing = true;
+                long target = nextOffset;
+                List<LogSegment> dirty = new ArrayList<>(unflushed);
+                dirty.add(active);
+                unflushed.clear();
+                lock.unlock();
+                boolean forced = false;
+                try {
+                    for (LogSegment segment : dirty) {
+                        segment.force();
+                    }
+                    offsetBuffer.force();
+                    forced = true;
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    if (!forced) {
+                        // The next flush must force these segments again; the active one is always forced.
+                        for (LogSegment segment : dirty) {
+                            if (segment != active && !unflushed.contains(segment)) {
+                                unflushed.add(segment);
+                            }
+                        }
+                    }
+                    flushed.signalAll();
+                }
+                flushedOffset = Math.max(flushedOffset, target);
+                deleteConsumedSegments();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next unread record, waiting while the log is empty and still running.
+     * The record must be acknowledged once processed.
+     *
+     * @return the next record, or null if every record has been read and the log is no longer running.
+     */
+    public LogRecord<T> take() {
+        lock.lock();
+        try {
+            if (readOffset == nextOffset && isRunning) {
+                awaitNotEmpty();
+            }
+            if (readOffset == nextOffset) {
+                return null;
+            }
+            metrics.recordDequeue(1);
+            return read();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next unread record, waiting up to the given time while the log is empty and still running.
+     * The record must be acknowledged once processed.
+     *
+     * @param timeout how long to wait for a record.
+     * @param unit    the unit of the timeout.
+     * @return the next record, or null if the time elapsed or every record has been read and the log is no longer
+     *         running.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public LogRecord<T> take(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (readOffset == nextOffset && isRunning && !awaitNotEmpty(unit.toNanos(timeout))) {
+                return null;
+            }
+            if (readOffset == nextOffset) {
+                return null;
+            }
+            metrics.recordDequeue(1);
+            return read();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the unread records already in the log, without waiting.
+     * The records must be acknowledged once processed.
+     *
+     * @param target     the collection to add the records to.
+     * @param maxRecords the maximum number of records to take.
+     * @return the number of records taken.
+     */
+    public int drainRecords(Collection<? super LogRecord<T>> target, int maxRecords) {
+        lock.lock();
+        try {
+            int drained = (int) Math.min(maxRecords, nextOffset - readOffset);
+            if (drained <= 0) {
+                return 0;
+            }
+            for (int i = 0; i < drained; i++) {
+                target.add(read());
+            }
+            metrics.recordDequeue(drained);
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the record at the read offset and advances past it. Must hold the lock.
+     */
+    private LogRecord<T> read() {
+        while (readOffset == readSegment.getEndOffset()) {
+            readSegment = segments.get(segments.indexOf(readSegment) + 1);
+            readPosition = 0;
+        }
+        T value = readSegment.read(codec, readPosition);
+        readPosition = readSegment.next(readPosition);
+        return new LogRecord<>(readOffset++, value);
+    }
+
+    /**
+     * Marks a record as processed. The committed offset advances past every record acknowledged so far without gaps.
+     *
+     * @param offset the offset of the processed record.
+     */
+    public void acknowledge(long offset) {
+        lock.lock();
+        try {
+            commit(offset);
+            offsetBuffer.putLong(0, committedOffset);
+            deleteConsumedSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks every given record as processed.
+     *
+     * @param records the processed records.
+     */
+    public void acknowledgeAll(Collection<? extends LogRecord<T>> records) {
+        lock.lock();
+        try {
+            for (LogRecord<T> record : records) {
+                commit(record.getOffset());
+            }
+            offsetBuffer.putLong(0, committedOffset);
+            deleteConsumedSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the committed offset over the acknowledged records. Must hold the lock.
+     */
+    private void commit(long offset) {
+        if (offset == committedOffset && acknowledged.isEmpty()) {
+            committedOffset++;
+            return;
+        }
+        if (offset < committedOffset) {
+            return;
+        }
+        acknowledged.add(offset);
+        while (!acknowledged.isEmpty() && acknowledged.peek() == committedOffset) {
+            acknowledged.poll();
+            committedOffset++;
+        }
+    }
+
+    /**
+     * Deletes the oldest segments once they are flushed and every record in them has been committed. Must hold the
+     * lock.
+     */
+    private void deleteConsumedSegments() {
+        if (flushing) {
+            return;
+        }
+        long consumed = Math.min(committedOffset, flushedOffset);
+        while (segments.size() > 1) {
+            LogSegment oldest = segments.get(0);
+            if (oldest == active || oldest == readSegment || oldest.getEndOffset() > consumed) {
+                return;
+            }
+            segments.remove(0);
+            oldest.delete();
+        }
+    }
+
+    /**
+     * Takes the next record and acknowledges it straight away, so it is not delivered again after a restart even if
+     * the caller fails to process it.
+     *
+     * @return the next value, or null if the log is empty and no longer running.
+     */
+    @Override
+    public T removeFromQueue() {
+        LogRecord<T> record = take();
+        if (record == null) {
+            return null;
+        }
+        acknowledge(record.getOffset());
+        return record.getValue();
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        LogRecord<T> record;
+        lock.lockInterruptibly();
+        try {
+            if (readOffset == nextOffset && isRunning && !awaitNotEmpty(nanos)) {
+                return null;
+            }
+            if (readOffset == nextOffset) {
+                return null;
+            }
+            metrics.recordDequeue(1);
+            record = read();
+        } finally {
+            lock.unlock();
+        }
+        acknowledge(record.getOffset());
+        return record.getValue();
+    }
+
+    @Override
+    public T tryRemove() {
+        List<LogRecord<T>> records = new ArrayList<>(1);
+        if (drainRecords(records, 1) == 0) {
+            return null;
+        }
+        acknowledge(records.get(0).getOffset());
+        return records.get(0).getValue();
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        List<LogRecord<T>> records = new ArrayList<>();
+        int drained = drainRecords(records, maxElements);
+        if (drained > 0) {
+            acknowledgeAll(records);
+            for (LogRecord<T> record : records) {
+                target.add(record.getValue());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Waits until the log has an unread record or is stopped, recording the time spent blocked. Must hold the lock.
+     */
+    private void awaitNotEmpty() throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            while (readOffset == nextOffset && isRunning) {
+                notEmpty.await();
+            }
+        } finally {
+            metrics.recordBlockedEmpty(start);
+        }
+    }
+
+    /**
+     * Waits up to the given time until the log has an unread record or is stopped. Must hold the lock.
+     *
+     * @return false if the time elapsed while the log was still empty.
+     */
+    private boolean awaitNotEmpty(long nanos) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            while (readOffset == nextOffset && isRunning) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            metrics.recordBlockedEmpty(start);
+        }
+    }
+
+    /**
+     * Stops the log and wakes every waiting reader so they can observe the stop.
+     * Records already in the log can still be read.
+     */
+    @Override
+    public void stop() {
+        isRunning = false;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the log, flushes it together with the committed offset, and closes its files.
+     */
+    public void close() {
+        stop();
+        long end;
+        lock.lock();
+        try {
+            end = nextOffset;
+        } finally {
+            lock.unlock();
+        }
+        sync(end);
+        lock.lock();
+        try {
+            offsetBuffer.force();
+            for (LogSegment segment : segments) {
+                segment.close();
+            }
+            offsetChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the offset the next appended message will get.
+     */
+    public long getEndOffset() {
+        lock.lock();
+        try {
+            return nextOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the lowest offset that has not been acknowledged.
+     */
+    public long getCommittedOffset() {
+        lock.lock();
+        try {
+            return committedOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of records not yet read.
+     */
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, nextOffset - readOffset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean getIsRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,24 @@
+package DataStructures.Log;
+
+/**
+ * A message read from a durable log together with its offset.
+ *
+ * @param <T> the type of the message.
+ */
+public class LogRecord<T> {
+    private final long offset;
+    private final T value;
+
+    LogRecord(long offset, T value) {
+        this.offset = offset;
+        this.value = value;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public T getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,147 @@
+package DataStructures.Log;
+
+import Codec.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped file of a durable log, holding consecutive records starting at its base offset.
+ * Records are {@code [int length][payload]}. The payload is written before the length, and the unused tail of the
+ * file is zero, so on recovery the first zero or truncated length marks the end of the segment.
+ */
+class LogSegment {
+    private final Path file;
+    private final long baseOffset;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private int recordCount;
+
+    private LogSegment(Path file, long baseOffset, int size) throws IOException {
+        this.file = file;
+        this.baseOffset = baseOffset;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        recover();
+    }
+
+    /**
+     * Opens an existing segment file, or creates an empty one.
+     *
+     * @param directory  the log directory.
+     * @param baseOffset the offset of the segment's first record.
+     * @param size       the size of a new segment file.
+     * @return the segment, positioned after its last complete record.
+     */
+    static LogSegment open(Path directory, long baseOffset, int size) {
+        try {
+            return new LogSegment(directory.resolve(fileName(baseOffset)), baseOffset, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String fileName(long baseOffset) {
+        return String.format("%020d.log", baseOffset);
+    }
+
+    private void recover() {
+        int position = 0;
+        int count = 0;
+        while (position + Integer.BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > buffer.capacity()) {
+                break;
+            }
+            position += Integer.BYTES + length;
+            count++;
+        }
+        this.writePosition = position;
+        this.recordCount = count;
+    }
+
+    /**
+     * Appends a record if it fits.
+     *
+     * @return false if the segment is too full to hold the record.
+     */
+    <T> boolean append(Codec<T> codec, T value) {
+        int length = codec.encodedSize(value);
+        if (writePosition + Integer.BYTES + length > buffer.capacity()) {
+            return false;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(writePosition + Integer.BYTES);
+        codec.encode(value, payload);
+        buffer.putInt(writePosition, length);
+        writePosition += Integer.BYTES + length;
+        recordCount++;
+        return true;
+    }
+
+    /**
+     * Decodes the record at the given position.
+     */
+    <T> T read(Codec<T> codec, int position) {
+        int length = buffer.getInt(position);
+        return codec.decode(buffer.slice(position + Integer.BYTES, length));
+    }
+
+    /**
+     * @return the position of the record after the one at the given position.
+     */
+    int next(int position) {
+        return position + Integer.BYTES + buffer.getInt(position);
+    }
+
+    /**
+     * @return the position of the record with the given index in this segment, found by walking the records.
+     */
+    int positionOf(long offset) {
+        int position = 0;
+        for (long i = baseOffset; i < offset; i++) {
+            position = next(position);
+        }
+        return position;
+    }
+
+    long getBaseOffset() {
+        return baseOffset;
+    }
+
+    /**
+     * @return the offset after the segment's last record.
+     */
+    long getEndOffset() {
+        return baseOffset + recordCount;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package DataStructures.Queue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A blocking queue backed by a fixed-size circular array.
+ * All slots are allocated up front, so adding and removing elements does not allocate.
+ *
+ * @param <T> the type of elements stored in the queue.
+ */
+public class ArrayBlockingQueue<T> implements MessageQueue<T> {
+    private final Object[] items;
+    private int head = 0;
+    private int tail = 0;
+    private int count = 0;
+    private boolean isRunning = true;
+    private final int MAX_SIZE;
+    private final QueueMetrics metrics = new QueueMetrics();
+
+    public ArrayBlockingQueue(int size) {
+        this.MAX_SIZE = size;
+        this.items = new Object[size];
+    }
+
+    public ArrayBlockingQueue() {
+        this(25);
+    }
+
+    /**
+     * Adds the specified value to the tail of the ring.
+     * If the queue is at its maximum capacity and is still running, the method will wait until space becomes available.
+     * If the thread is interrupted while waiting, a RuntimeException will be thrown.
+     *
+     * @param value the value to be added to the queue.
+     */
+    @Override
+    public synchronized void addToQueue(T value) {
+        if (count >= MAX_SIZE && isRunning) {
+            long start = System.nanoTime();
+            while (count >= MAX_SIZE && isRunning) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            metrics.recordBlockedFull(start);
+        }
+        if (isRunning) {
+            items[tail] = value;
+            tail = next(tail);
+            count++;
+            metrics.recordEnqueue(1, count);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Removes and returns the element at the head of the ring.
+     * If the queue is empty and the queue is still running, the method will wait until an element is available.
+     * The vacated slot is cleared so the queue does not keep consumed values reachable.
+     *
+     * @return the element removed from the queue, or null if the queue is empty and no longer running.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized T removeFromQueue() {
+        if (count == 0 && isRunning) {
+            long start = System.nanoTime();
+            while (count == 0 && isRunning) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            metrics.recordBlockedEmpty(start);
+        }
+        if (count == 0) {
+            return null;
+        }
+        T value = (T) items[head];
+        items[head] = null;
+        head = next(head);
+        count--;
+        metrics.recordDequeue(1);
+        notifyAll();
+        return value;
+    }
+
+    @Override
+    public synchronized boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        if (count >= MAX_SIZE && isRunning) {
+            long start = System.nanoTime();
+            long deadline = start + unit.toNanos(timeout);
+            try {
+                while (count >= MAX_SIZE && isRunning) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } finally {
+                metrics.recordBlockedFull(start);
+            }
+        }
+        return tryAdd(value);
+    }
+
+    @Override
+    public synchronized T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (count == 0 && isRunning) {
+            long start = System.nanoTime();
+            long deadline = start + unit.toNanos(timeout);
+            try {
+                while (count == 0 && isRunning) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } finally {
+                metrics.recordBlockedEmpty(start);
+            }
+        }
+        return tryRemove();
+    }
+
+    @Override
+    public synchronized boolean tryAdd(T value) {
+        if (count >= MAX_SIZE || !isRunning) {
+            return false;
+        }
+        items[tail] = value;
+        tail = next(tail);
+        count++;
+        metrics.recordEnqueue(1, count);
+        notifyAll();
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized T tryRemove() {
+        if (count == 0) {
+            return null;
+        }
+        T value = (T) items[head];
+        items[head] = null;
+        head = next(head);
+        count--;
+        metrics.recordDequeue(1);
+        notifyAll();
+        return value;
+    }
+
+    @Override
+    public synchronized void addAll(Collection<? extends T> values) {
+        boolean added = false;
+        for (T value : values) {
+            if (count >= MAX_SIZE && isRunning) {
+                if (added) {
+                    notifyAll();
+                    added = false;
+                }
+                long start = System.nanoTime();
+                while (count >= MAX_SIZE && isRunning) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                metrics.recordBlockedFull(start);
+            }
+            if (!isRunning) {
+                break;
+            }
+            items[tail] = value;
+            tail = next(tail);
+            count++;
+            added = true;
+            metrics.recordEnqueue(1, count);
+        }
+        if (added) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized int drainTo(Collection<? super T> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements && count > 0) {
+            target.add((T) items[head]);
+            items[head] = null;
+            head = next(head);
+            count--;
+            drained++;
+        }
+        if (drained > 0) {
+            metrics.recordDequeue(drained);
+            notifyAll();
+        }
+        return drained;
+    }
+
+    private int next(int index) {
+        return ++index == MAX_SIZE ? 0 : index;
+    }
+
+    @Override
+    public synchronized void stop() {
+        isRunning = false;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized boolean getIsRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+}
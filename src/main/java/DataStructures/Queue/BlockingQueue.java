@@ -3,17 +3,21 @@ package DataStructures.Queue;
 import DataStructures.LinkedList.LinkedList;
 import DataStructures.LinkedList.LinkedListNode;
 
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
 /**
- * A blocking queue implementation that extends LinkedList.
+ * A blocking queue implementation backed by a LinkedList.
  * This queue has a maximum size and supports thread-safe operations.
  *
  * @param <T> the type of elements stored in the queue.
  */
-public class BlockingQueue<T> extends LinkedList<T> {
+public class BlockingQueue<T> implements MessageQueue<T> {
     private LinkedList<T> queue = new LinkedList<T>();
     private boolean isEmpty = true;
-    private boolean isRunning = true;
+    private volatile boolean isRunning = true;
     private final int MAX_SIZE;
+    private final QueueMetrics metrics = new QueueMetrics();
 
     public BlockingQueue(int size) {
         this.MAX_SIZE = size;
@@ -31,19 +35,23 @@ public class BlockingQueue<T> extends LinkedList<T> {
      *
      * @param value the value to be added to the queue.
      */
+    @Override
     public synchronized void addToQueue(T value) {
-        while(queue.size() >= MAX_SIZE && isRunning) {
-            try {
-                System.out.println("Queue at capacity " + MAX_SIZE);
-                wait();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+        if (queue.size() >= MAX_SIZE && isRunning) {
+            long start = System.nanoTime();
+            while (queue.size() >= MAX_SIZE && isRunning) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
             }
+            metrics.recordBlockedFull(start);
         }
         if (isRunning) {
             queue.add(new LinkedListNode<T>(value));
             isEmpty = false;
-            System.out.println("Notifying consumer. Queue size: " + queue.size());
+            metrics.recordEnqueue(1, queue.size());
             notify();
         }
     }
@@ -56,14 +64,18 @@ public class BlockingQueue<T> extends LinkedList<T> {
      * 
      * @return the element removed from the queue, or null if the queue is empty and no longer running.
      */
+    @Override
     public synchronized T removeFromQueue() {
-        while (isEmpty && isRunning) {
-            try {
-                System.out.println("Queue is empty " + queue.size());
-                wait();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+        if (isEmpty && isRunning) {
+            long start = System.nanoTime();
+            while (isEmpty && isRunning) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
             }
+            metrics.recordBlockedEmpty(start);
         }
         if (queue.size() == 0 && !isRunning) {
             return null;
@@ -74,25 +86,148 @@ public class BlockingQueue<T> extends LinkedList<T> {
             isEmpty = true;
         }
 
+        metrics.recordDequeue(1);
         if (queue.size() < MAX_SIZE) {
-            System.out.println("Notifying producers. Queue size: " + queue.size());
             notifyAll();
         }
-        System.out.println("Consumed value. Queue size: " + queue.size());
 
         return value;
     }
 
-    public void stop() {
+    @Override
+    public synchronized boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        if (queue.size() >= MAX_SIZE && isRunning) {
+            long start = System.nanoTime();
+            long deadline = start + unit.toNanos(timeout);
+            try {
+                while (queue.size() >= MAX_SIZE && isRunning) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } finally {
+                metrics.recordBlockedFull(start);
+            }
+        }
+        return tryAdd(value);
+    }
+
+    @Override
+    public synchronized T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (queue.size() == 0 && isRunning) {
+            long start = System.nanoTime();
+            long deadline = start + unit.toNanos(timeout);
+            try {
+                while (queue.size() == 0 && isRunning) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } finally {
+                metrics.recordBlockedEmpty(start);
+            }
+        }
+        return tryRemove();
+    }
+
+    @Override
+    public synchronized boolean tryAdd(T value) {
+        if (queue.size() >= MAX_SIZE || !isRunning) {
+            return false;
+        }
+        queue.add(new LinkedListNode<T>(value));
+        isEmpty = false;
+        metrics.recordEnqueue(1, queue.size());
+        notifyAll();
+        return true;
+    }
+
+    @Override
+    public synchronized T tryRemove() {
+        if (queue.size() == 0) {
+            return null;
+        }
+        T value = queue.removeLeft();
+        if (queue.size() == 0) {
+            isEmpty = true;
+        }
+        metrics.recordDequeue(1);
+        notifyAll();
+        return value;
+    }
+
+    @Override
+    public synchronized void addAll(Collection<? extends T> values) {
+        boolean added = false;
+        for (T value : values) {
+            if (queue.size() >= MAX_SIZE && isRunning) {
+                if (added) {
+                    notifyAll();
+                    added = false;
+                }
+                long start = System.nanoTime();
+                while (queue.size() >= MAX_SIZE && isRunning) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                metrics.recordBlockedFull(start);
+            }
+            if (!isRunning) {
+                break;
+            }
+            queue.add(new LinkedListNode<T>(value));
+            isEmpty = false;
+            added = true;
+            metrics.recordEnqueue(1, queue.size());
+        }
+        if (added) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized int drainTo(Collection<? super T> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements && queue.size() > 0) {
+            target.add(queue.removeLeft());
+            drained++;
+        }
+        if (queue.size() == 0) {
+            isEmpty = true;
+        }
+        if (drained > 0) {
+            metrics.recordDequeue(drained);
+            notifyAll();
+        }
+        return drained;
+    }
+
+    @Override
+    public synchronized void stop() {
         isRunning = false;
+        notifyAll();
     }
 
+    @Override
     public int size() {
         return queue.size();
     }
 
+    @Override
     public boolean getIsRunning() {
         return isRunning;
     }
 
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+
 }
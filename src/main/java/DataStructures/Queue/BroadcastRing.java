@@ -0,0 +1,410 @@
+package DataStructures.Queue;
+
+import DataStructures.Queue.Wait.WaitStrategy;
+import DataStructures.Queue.Wait.WaitStrategyType;
+
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A fixed-size ring whose elements are delivered to every reader instead of to exactly one.
+ * Each reader consumes through its own cursor obtained from {@link #newCursor()}, which holds the sequence of the
+ * next element it will read. Elements are stored once and a slot is only reused after every cursor has read it, so
+ * the slowest cursor applies backpressure to publishers.
+ * Publishers serialize on a put lock and publish the tail with a volatile write. Every cursor advances its own
+ * volatile sequence without a lock, so readers never contend with each other or with publishers. The slowest
+ * position is cached and only recomputed by the cursor that was holding it back, or by a publisher that finds the
+ * ring full; whoever recomputes it clears the slots every cursor has passed, so consumed elements do not stay
+ * reachable. Publishers and readers wait according to their wait strategy.
+ * The ring itself is the publishing side; elements are read through cursors only.
+ *
+ * @param <T> the type of elements stored in the ring.
+ */
+public class BroadcastRing<T> implements MessageSink<T> {
+    private final Object[] items;
+    private final int MAX_SIZE;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long minCursor = 0;
+    private final CopyOnWriteArrayList<Cursor> cursors = new CopyOnWriteArrayList<>();
+    private final AtomicInteger waitingPublishers = new AtomicInteger();
+    private volatile boolean isRunning = true;
+    private final QueueMetrics metrics = new QueueMetrics();
+
+    private final ReentrantLock putLock = new ReentrantLock();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final WaitStrategy notFull;
+    private final WaitStrategy notEmpty;
+    private final BooleanSupplier canPublish = () -> !isRunning || !isFull();
+
+    public BroadcastRing(int size, WaitStrategyType waitStrategy) {
+        this.MAX_SIZE = size;
+        this.items = new Object[size];
+        this.notFull = waitStrategy.create();
+        this.notEmpty = waitStrategy.create();
+    }
+
+    public BroadcastRing(int size) {
+        this(size, WaitStrategyType.SPIN_BLOCK);
+    }
+
+    /**
+     * Creates a cursor that receives every element published from now on.
+     * A cursor is read by one thread at a time.
+     *
+     * @return a reading view of the ring through a new cursor.
+     */
+    public MessageSource<T> newCursor() {
+        putLock.lock();
+        try {
+            Cursor cursor = new Cursor(tail.get());
+            if (cursors.isEmpty()) {
+                sweepLock.lock();
+                try {
+                    minCursor = tail.get();
+                } finally {
+                    sweepLock.unlock();
+                }
+            }
+            cursors.add(cursor);
+            return cursor;
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the value to every cursor.
+     * If the slowest cursor is a full ring behind and the ring is still running, the method will wait until it
+     * catches up.
+     *
+     * @param value the value to be published.
+     */
+    @Override
+    public void addToQueue(T value) {
+        putLock.lock();
+        try {
+            awaitNotFull();
+            if (isRunning) {
+                append(value);
+                notEmpty.signalAll();
+            }
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        putLock.lockInterruptibly();
+        try {
+            if (isFull() && isRunning) {
+                long start = System.nanoTime();
+                waitingPublishers.incrementAndGet();
+                try {
+                    if (!notFull.await(canPublish, deadline)) {
+                        return false;
+                    }
+                } finally {
+                    waitingPublishers.decrementAndGet();
+                    metrics.recordBlockedFull(start);
+                }
+            }
+            if (!isRunning) {
+                return false;
+            }
+            append(value);
+            notEmpty.signalAll();
+            return true;
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryAdd(T value) {
+        putLock.lock();
+        try {
+            if (isFull() || !isRunning) {
+                return false;
+            }
+            append(value);
+            notEmpty.signalAll();
+            return true;
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes every value while holding the put lock, waking readers once per run of values.
+     *
+     * @param values the values to be published.
+     */
+    @Override
+    public void addAll(Collection<? extends T> values) {
+        putLock.lock();
+        try {
+            boolean added = false;
+            for (T value : values) {
+                if (isFull() && isRunning) {
+                    if (added) {
+                        notEmpty.signalAll();
+                        added = false;
+                    }
+                    awaitNotFull();
+                }
+                if (!isRunning) {
+                    break;
+                }
+                append(value);
+                added = true;
+            }
+            if (added) {
+                notEmpty.signalAll();
+            }
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the slowest cursor leaves room for another element or the ring is stopped. Must hold the put lock.
+     */
+    private void awaitNotFull() {
+        if (!isFull() || !isRunning) {
+            return;
+        }
+        long start = System.nanoTime();
+        waitingPublishers.incrementAndGet();
+        try {
+            while (isFull() && isRunning) {
+                notFull.await(canPublish);
+            }
+        } finally {
+            waitingPublishers.decrementAndGet();
+            metrics.recordBlockedFull(start);
+        }
+    }
+
+    /**
+     * Stores the value at the tail and publishes it. Must hold the put lock and have checked that the ring is not
+     * full. Without cursors nobody can read the value, so it is not kept.
+     */
+    private void append(T value) {
+        long t = tail.get();
+        boolean read = !cursors.isEmpty();
+        items[(int) (t % MAX_SIZE)] = read ? value : null;
+        tail.set(t + 1);
+        metrics.recordEnqueue(1, read ? t + 1 - minCursor : 0);
+    }
+
+    /**
+     * Checks whether publishing would overwrite a slot the slowest cursor has not read yet.
+     * The cached minimum is only recomputed when it says the ring is full.
+     */
+    private boolean isFull() {
+        if (cursors.isEmpty() || tail.get() - minCursor < MAX_SIZE) {
+            return false;
+        }
+        sweep();
+        return !cursors.isEmpty() && tail.get() - minCursor >= MAX_SIZE;
+    }
+
+    /**
+     * Recomputes the slowest cursor position and clears the slots every cursor has passed since the last sweep.
+     * Slots are cleared before the new minimum is published, so a publisher never reuses a slot that is still being
+     * cleared.
+     *
+     * @return true if the minimum advanced.
+     */
+    private boolean sweep() {
+        sweepLock.lock();
+        try {
+            long from = minCursor;
+            long min = tail.get();
+            for (Cursor cursor : cursors) {
+                min = Math.min(min, cursor.next);
+            }
+            if (min <= from) {
+                return false;
+            }
+            for (long sequence = from; sequence < min; sequence++) {
+                items[(int) (sequence % MAX_SIZE)] = null;
+            }
+            minCursor = min;
+            return true;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /**
+     * Called after a cursor has advanced from the given sequence. The minimum is only recomputed if that cursor may
+     * have been holding it back, or if a publisher is waiting for room.
+     */
+    private void cursorAdvanced(long from) {
+        if ((from == minCursor || waitingPublishers.get() > 0) && sweep()) {
+            notFull.signalAll();
+        }
+    }
+
+    /**
+     * Stops the ring and wakes every waiting publisher and reader. Cursors still deliver what they have not read.
+     */
+    @Override
+    public void stop() {
+        isRunning = false;
+        notFull.signalAll();
+        notEmpty.signalAll();
+    }
+
+    /**
+     * Returns the number of elements the slowest cursor has not read yet.
+     *
+     * @return the backlog of the slowest cursor.
+     */
+    @Override
+    public int size() {
+        long t = tail.get();
+        long min = t;
+        for (Cursor cursor : cursors) {
+            min = Math.min(min, cursor.next);
+        }
+        return (int) (t - min);
+    }
+
+    @Override
+    public boolean getIsRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * One reader's position in the ring. Only the reading thread moves the position, so it is published with a
+     * volatile write and read by sweeps without a lock. Stopping a cursor detaches it so it no longer holds back
+     * publishers; stopping the ring stops every cursor once it has read what was published.
+     */
+    private class Cursor implements MessageSource<T> {
+        private volatile long next;
+        private volatile boolean attached = true;
+        private final BooleanSupplier canRead = () -> next < tail.get() || !isRunning || !attached;
+
+        Cursor(long next) {
+            this.next = next;
+        }
+
+        @Override
+        public T removeFromQueue() {
+            while (attached) {
+                T value = tryRemove();
+                if (value != null) {
+                    return value;
+                }
+                if (!isRunning && next >= tail.get()) {
+                    return null;
+                }
+                long start = System.nanoTime();
+                notEmpty.await(canRead);
+                metrics.recordBlockedEmpty(start);
+            }
+            return null;
+        }
+
+        @Override
+        public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (attached) {
+                T value = tryRemove();
+                if (value != null) {
+                    return value;
+                }
+                if (!isRunning && next >= tail.get()) {
+                    return null;
+                }
+                long start = System.nanoTime();
+                boolean ready = notEmpty.await(canRead, deadline);
+                metrics.recordBlockedEmpty(start);
+                if (!ready) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Reads the element at this cursor without waiting.
+         *
+         * @return the element, or null if the cursor has read everything published or is detached.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public T tryRemove() {
+            long from = next;
+            if (!attached || from >= tail.get()) {
+                return null;
+            }
+            T value = (T) items[(int) (from % MAX_SIZE)];
+            next = from + 1;
+            metrics.recordDequeue(1);
+            cursorAdvanced(from);
+            return value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int drainTo(Collection<? super T> target, int maxElements) {
+            long from = next;
+            int drained = (int) Math.min(maxElements, tail.get() - from);
+            if (!attached || drained <= 0) {
+                return 0;
+            }
+            for (int i = 0; i < drained; i++) {
+                target.add((T) items[(int) ((from + i) % MAX_SIZE)]);
+            }
+            next = from + drained;
+            metrics.recordDequeue(drained);
+            cursorAdvanced(from);
+            return drained;
+        }
+
+        /**
+         * Detaches the cursor from the ring so a reader that gives up no longer holds back publishers.
+         */
+        @Override
+        public void stop() {
+            if (!attached) {
+                return;
+            }
+            attached = false;
+            cursors.remove(this);
+            sweep();
+            notFull.signalAll();
+            notEmpty.signalAll();
+        }
+
+        @Override
+        public int size() {
+            return attached ? (int) (tail.get() - next) : 0;
+        }
+
+        @Override
+        public boolean getIsRunning() {
+            return isRunning && attached;
+        }
+
+        @Override
+        public QueueMetrics getMetrics() {
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package DataStructures.Queue;
+
+import java.util.List;
+
+/**
+ * A read-only view combining the metrics of several queues, such as the partitions of a partitioned queue.
+ * Counts and blocked time are summed; the high-water mark is that of the deepest queue.
+ * Anything recorded on the composite itself, such as time spent waiting on several queues at once, is included.
+ */
+public class CompositeQueueMetrics extends QueueMetrics {
+    private final List<QueueMetrics> parts;
+
+    public CompositeQueueMetrics(List<QueueMetrics> parts) {
+        this.parts = List.copyOf(parts);
+    }
+
+    @Override
+    public long getEnqueued() {
+        long sum = super.getEnqueued();
+        for (QueueMetrics part : parts) {
+            sum += part.getEnqueued();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getDequeued() {
+        long sum = super.getDequeued();
+        for (QueueMetrics part : parts) {
+            sum += part.getDequeued();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getHighWaterMark() {
+        long max = super.getHighWaterMark();
+        for (QueueMetrics part : parts) {
+            max = Math.max(max, part.getHighWaterMark());
+        }
+        return max;
+    }
+
+    @Override
+    public long getBlockedFullNanos() {
+        long sum = super.getBlockedFullNanos();
+        for (QueueMetrics part : parts) {
+            sum += part.getBlockedFullNanos();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getBlockedEmptyNanos() {
+        long sum = super.getBlockedEmptyNanos();
+        for (QueueMetrics part : parts) {
+            sum += part.getBlockedEmptyNanos();
+        }
+        return sum;
+    }
+}
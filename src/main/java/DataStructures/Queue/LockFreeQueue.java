@@ -0,0 +1,292 @@
+package DataStructures.Queue;
+
+import DataStructures.Queue.Wait.WaitStrategy;
+import DataStructures.Queue.Wait.WaitStrategyType;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A bounded, lock-free multi-producer/multi-consumer queue.
+ * Every slot of the ring carries a sequence number that tells producers and consumers whose turn it is to use it.
+ * Producers and consumers claim positions with a compare-and-set and never take a lock on the fast path.
+ * When the queue is full or empty, producers and consumers wait according to their wait strategy. By default they spin
+ * briefly and then fall back to blocking on a monitor.
+ * The depth for the high water mark is sampled every 64 enqueues and whenever a producer finds the queue full, so
+ * producers do not read the consumers' position on every message.
+ *
+ * @param <T> the type of elements stored in the queue.
+ */
+public class LockFreeQueue<T> implements MessageQueue<T> {
+    private static final long DEPTH_SAMPLE_MASK = 63;
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePos = new AtomicLong();
+    private final AtomicLong dequeuePos = new AtomicLong();
+    private volatile boolean isRunning = true;
+    private final int MAX_SIZE;
+    private final QueueMetrics metrics = new QueueMetrics();
+
+    private final WaitStrategy notFull;
+    private final WaitStrategy notEmpty;
+    private final BooleanSupplier canProduce = () -> !isFull() || !isRunning;
+    private final BooleanSupplier canConsume = () -> !isEmpty() || !isRunning;
+
+    public LockFreeQueue(int size, WaitStrategyType waitStrategy) {
+        this.MAX_SIZE = size;
+        this.notFull = waitStrategy.create();
+        this.notEmpty = waitStrategy.create();
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public LockFreeQueue(int size) {
+        this(size, WaitStrategyType.SPIN_BLOCK);
+    }
+
+    public LockFreeQueue() {
+        this(25);
+    }
+
+    /**
+     * Adds the specified value to the queue.
+     * If the queue is full the producer waits according to its wait strategy until a consumer frees a slot.
+     * Values added after the queue has been stopped are discarded.
+     *
+     * @param value the value to be added to the queue.
+     */
+    @Override
+    public void addToQueue(T value) {
+        while (isRunning) {
+            if (enqueue(value)) {
+                notEmpty.signal();
+                return;
+            }
+            long start = System.nanoTime();
+            notFull.await(canProduce);
+            metrics.recordBlockedFull(start);
+        }
+    }
+
+    /**
+     * Removes and returns an element from the queue.
+     * If the queue is empty the consumer waits according to its wait strategy until a producer adds an element.
+     *
+     * @return the element removed from the queue, or null if the queue is empty and no longer running.
+     */
+    @Override
+    public T removeFromQueue() {
+        while (true) {
+            T value = dequeue();
+            if (value != null) {
+                notFull.signal();
+                return value;
+            }
+            if (!isRunning && isEmpty()) {
+                return null;
+            }
+            long start = System.nanoTime();
+            notEmpty.await(canConsume);
+            metrics.recordBlockedEmpty(start);
+        }
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (isRunning) {
+            if (enqueue(value)) {
+                notEmpty.signal();
+                return true;
+            }
+            long start = System.nanoTime();
+            boolean ready = notFull.await(canProduce, deadline);
+            metrics.recordBlockedFull(start);
+            if (!ready) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            T value = dequeue();
+            if (value != null) {
+                notFull.signal();
+                return value;
+            }
+            if (!isRunning && isEmpty()) {
+                return null;
+            }
+            long start = System.nanoTime();
+            boolean ready = notEmpty.await(canConsume, deadline);
+            metrics.recordBlockedEmpty(start);
+            if (!ready) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAdd(T value) {
+        if (isRunning && enqueue(value)) {
+            notEmpty.signal();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public T tryRemove() {
+        T value = dequeue();
+        if (value != null) {
+            notFull.signal();
+        }
+        return value;
+    }
+
+    /**
+     * Adds every value, waking blocked consumers once before the producer has to wait and once at the end.
+     *
+     * @param values the values to be added to the queue.
+     */
+    @Override
+    public void addAll(Collection<? extends T> values) {
+        boolean added = false;
+        for (T value : values) {
+            while (isRunning && !enqueue(value)) {
+                if (added) {
+                    notEmpty.signalAll();
+                    added = false;
+                }
+                long start = System.nanoTime();
+                notFull.await(canProduce);
+                metrics.recordBlockedFull(start);
+            }
+            if (!isRunning) {
+                break;
+            }
+            added = true;
+        }
+        if (added) {
+            notEmpty.signalAll();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        int drained = 0;
+        T value;
+        while (drained < maxElements && (value = dequeue()) != null) {
+            target.add(value);
+            drained++;
+        }
+        if (drained > 0) {
+            notFull.signalAll();
+        }
+        return drained;
+    }
+
+    /**
+     * Attempts to claim the tail slot and store the value in it without blocking.
+     *
+     * @param value the value to be added to the queue.
+     * @return true if the value was added, false if the queue is full.
+     */
+    private boolean enqueue(T value) {
+        long pos = enqueuePos.get();
+        while (true) {
+            int index = (int) (pos % MAX_SIZE);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (enqueuePos.compareAndSet(pos, pos + 1)) {
+                    items[index] = value;
+                    sequences.lazySet(index, pos + 1);
+                    // Reading the consumers' position pulls their cache line over, so the depth is only sampled.
+                    metrics.recordEnqueue(1, (pos & DEPTH_SAMPLE_MASK) == 0 ? pos + 1 - dequeuePos.get() : 0);
+                    return true;
+                }
+                pos = enqueuePos.get();
+            } else if (diff < 0) {
+                metrics.recordDepth(MAX_SIZE);
+                return false;
+            } else {
+                pos = enqueuePos.get();
+            }
+        }
+    }
+
+    /**
+     * Attempts to claim the head slot and take its value without blocking.
+     *
+     * @return the element at the head of the queue, or null if no element is ready.
+     */
+    @SuppressWarnings("unchecked")
+    private T dequeue() {
+        long pos = dequeuePos.get();
+        while (true) {
+            int index = (int) (pos % MAX_SIZE);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (dequeuePos.compareAndSet(pos, pos + 1)) {
+                    T value = (T) items[index];
+                    items[index] = null;
+                    sequences.lazySet(index, pos + MAX_SIZE);
+                    metrics.recordDequeue(1);
+                    return value;
+                }
+                pos = dequeuePos.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = dequeuePos.get();
+            }
+        }
+    }
+
+    /**
+     * Emptiness and fullness are judged from the claim counters rather than the slot sequences. The counters are
+     * updated with compare-and-set, so a blocked waiter that re-checks them is never left waiting for a claim it
+     * missed.
+     */
+    private boolean isEmpty() {
+        return enqueuePos.get() == dequeuePos.get();
+    }
+
+    private boolean isFull() {
+        return enqueuePos.get() - dequeuePos.get() >= MAX_SIZE;
+    }
+
+    @Override
+    public void stop() {
+        isRunning = false;
+        notFull.signalAll();
+        notEmpty.signalAll();
+    }
+
+    @Override
+    public int size() {
+        long size = enqueuePos.get() - dequeuePos.get();
+        return (int) Math.max(0, Math.min(size, MAX_SIZE));
+    }
+
+    @Override
+    public boolean getIsRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+}
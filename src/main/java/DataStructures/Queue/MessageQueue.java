@@ -0,0 +1,10 @@
+package DataStructures.Queue;
+
+/**
+ * A bounded, thread-safe queue that PubSub topics store their messages in, written and read through the same object.
+ * Implementations block producers while the queue is at capacity and block consumers while it is empty.
+ *
+ * @param <T> the type of elements stored in the queue.
+ */
+public interface MessageQueue<T> extends MessageSink<T>, MessageSource<T> {
+}
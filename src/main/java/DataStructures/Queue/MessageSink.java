@@ -0,0 +1,65 @@
+package DataStructures.Queue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The publishing side of a bounded, thread-safe message store: what PubSub topics add their messages to.
+ * Implementations block producers while the store is at capacity.
+ *
+ * @param <T> the type of elements stored.
+ */
+public interface MessageSink<T> {
+
+    /**
+     * Adds the specified value to the queue, waiting for space to become available if the queue is full.
+     * Values added after the queue has been stopped are discarded.
+     *
+     * @param value the value to be added to the queue.
+     */
+    void addToQueue(T value);
+
+    /**
+     * Adds the specified value to the queue, waiting up to the given timeout for space to become available.
+     *
+     * @param value   the value to be added to the queue.
+     * @param timeout how long to wait before giving up.
+     * @param unit    the unit of the timeout.
+     * @return true if the value was added, false if the timeout elapsed or the queue was stopped.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Adds the specified value to the queue only if there is space for it right now.
+     *
+     * @param value the value to be added to the queue.
+     * @return true if the value was added, false if the queue is full or stopped.
+     */
+    boolean tryAdd(T value);
+
+    /**
+     * Adds every value in the collection to the queue in iteration order, waiting for space whenever the queue is full.
+     * Locking and consumer wake-ups are paid once per run of values that fit rather than once per value.
+     * Values remaining when the queue is stopped are discarded.
+     *
+     * @param values the values to be added to the queue.
+     */
+    void addAll(Collection<? extends T> values);
+
+    /**
+     * Stops the queue. Waiting producers and consumers are released once the remaining elements are drained.
+     */
+    void stop();
+
+    int size();
+
+    boolean getIsRunning();
+
+    /**
+     * Returns the counters this queue keeps about its traffic.
+     *
+     * @return the queue's metrics.
+     */
+    QueueMetrics getMetrics();
+}
@@ -0,0 +1,62 @@
+package DataStructures.Queue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The consuming side of a bounded, thread-safe message store: what PubSub subscribers take their messages from.
+ * Implementations block consumers while there is nothing to take.
+ *
+ * @param <T> the type of elements stored.
+ */
+public interface MessageSource<T> {
+
+    /**
+     * Removes and returns an element from the queue, waiting for one to become available if the queue is empty.
+     *
+     * @return the element removed from the queue, or null if the queue is empty and no longer running.
+     */
+    T removeFromQueue();
+
+    /**
+     * Removes and returns an element from the queue, waiting up to the given timeout for one to become available.
+     *
+     * @param timeout how long to wait before giving up.
+     * @param unit    the unit of the timeout.
+     * @return the element removed from the queue, or null if the timeout elapsed or the queue is empty and stopped.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    T poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Removes and returns an element from the queue only if one is available right now.
+     *
+     * @return the element removed from the queue, or null if the queue is empty.
+     */
+    T tryRemove();
+
+    /**
+     * Removes up to maxElements elements that are already in the queue and adds them to the target, without waiting.
+     *
+     * @param target      the collection to add the removed elements to.
+     * @param maxElements the maximum number of elements to remove.
+     * @return the number of elements removed.
+     */
+    int drainTo(Collection<? super T> target, int maxElements);
+
+    /**
+     * Stops the queue. Waiting producers and consumers are released once the remaining elements are drained.
+     */
+    void stop();
+
+    int size();
+
+    boolean getIsRunning();
+
+    /**
+     * Returns the counters this queue keeps about its traffic.
+     *
+     * @return the queue's metrics.
+     */
+    QueueMetrics getMetrics();
+}
@@ -0,0 +1,272 @@
+package DataStructures.Queue;
+
+import DataStructures.Queue.Wait.WaitStrategyType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A queue split into independent partitions, each backed by its own queue.
+ * Keyed elements always go to the partition their key hashes to, so elements with the same key keep their order
+ * as long as each partition is consumed by one reader at a time. Unkeyed elements are spread round-robin.
+ * Readers that own several partitions wait for any of them through {@link #awaitAvailable}; publishers only touch
+ * the shared wait lock when a reader is actually idle.
+ *
+ * @param <T> the type of elements stored in the queue.
+ */
+public class PartitionedQueue<T> implements MessageQueue<T> {
+    private final List<MessageQueue<T>> partitions;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private final QueueMetrics metrics;
+    private volatile int idleReaders = 0;
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition available = idleLock.newCondition();
+
+    /**
+     * Constructs a partitioned queue.
+     *
+     * @param partitionCount the number of partitions.
+     * @param queueType      the queue implementation of each partition; must support several producers.
+     * @param capacity       the capacity of each partition.
+     * @param waitStrategy   the wait strategy of each partition, or null for the queue's default.
+     */
+    public PartitionedQueue(int partitionCount, QueueType queueType, int capacity, WaitStrategyType waitStrategy) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        }
+        if (queueType == QueueType.SPSC) {
+            throw new IllegalArgumentException("Partitions are shared by publishers and cannot be SPSC queues");
+        }
+        List<MessageQueue<T>> queues = new ArrayList<>(partitionCount);
+        List<QueueMetrics> parts = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            MessageQueue<T> queue = queueType.create(capacity, waitStrategy);
+            queues.add(queue);
+            parts.add(queue.getMetrics());
+        }
+        this.partitions = List.copyOf(queues);
+        this.metrics = new CompositeQueueMetrics(parts);
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public MessageQueue<T> getPartition(int partition) {
+        return partitions.get(partition);
+    }
+
+    /**
+     * Returns the partition the given key is stored in.
+     *
+     * @param key the key, or null for partition 0.
+     * @return the index of the key's partition.
+     */
+    public int partitionFor(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % partitions.size();
+    }
+
+    private MessageQueue<T> nextPartition() {
+        return partitions.get((nextPartition.getAndIncrement() & Integer.MAX_VALUE) % partitions.size());
+    }
+
+    /**
+     * Wakes readers waiting in {@link #awaitAvailable} after elements were added. Cheap when no reader is idle.
+     */
+    public void signalAvailable() {
+        if (idleReaders > 0) {
+            idleLock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits up to the given time until one of the given partitions has an element or the queue is stopped.
+     * Publishers signal waiting readers after adding, so the timeout only bounds how long a missed signal is noticed.
+     *
+     * @param owned the partitions the reader consumes.
+     * @param nanos the maximum time to wait.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void awaitAvailable(int[] owned, long nanos) throws InterruptedException {
+        idleLock.lockInterruptibly();
+        try {
+            idleReaders++;
+            try {
+                if (isEmpty(owned) && getIsRunning()) {
+                    long start = System.nanoTime();
+                    available.awaitNanos(nanos);
+                    metrics.recordBlockedEmpty(start);
+                }
+            } finally {
+                idleReaders--;
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private boolean isEmpty(int[] owned) {
+        for (int partition : owned) {
+            if (partitions.get(partition).size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the value to the next partition in round-robin order.
+     *
+     * @param value the value to be added to the queue.
+     */
+    @Override
+    public void addToQueue(T value) {
+        nextPartition().addToQueue(value);
+        signalAvailable();
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        boolean added = nextPartition().offer(value, timeout, unit);
+        signalAvailable();
+        return added;
+    }
+
+    @Override
+    public boolean tryAdd(T value) {
+        boolean added = nextPartition().tryAdd(value);
+        signalAvailable();
+        return added;
+    }
+
+    /**
+     * Adds every value to a single partition, chosen round-robin, so the batch keeps its order.
+     *
+     * @param values the values to be added to the queue.
+     */
+    @Override
+    public void addAll(Collection<? extends T> values) {
+        nextPartition().addAll(values);
+        signalAvailable();
+    }
+
+    /**
+     * Removes an element from the first non-empty partition, waiting for any partition if all are empty.
+     *
+     * @return the element removed from the queue, or null if the queue is empty and no longer running.
+     */
+    @Override
+    public T removeFromQueue() {
+        int[] all = allPartitions();
+        while (true) {
+            T value = tryRemove();
+            if (value != null || (!getIsRunning() && size() == 0)) {
+                return value;
+            }
+            try {
+                awaitAvailable(all, TimeUnit.MILLISECONDS.toNanos(10));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        int[] all = allPartitions();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            T value = tryRemove();
+            long remaining = deadline - System.nanoTime();
+            if (value != null || remaining <= 0 || (!getIsRunning() && size() == 0)) {
+                return value;
+            }
+            awaitAvailable(all, remaining);
+        }
+    }
+
+    @Override
+    public T tryRemove() {
+        int start = nextPartition.get();
+        for (int i = 0; i < partitions.size(); i++) {
+            T value = partitions.get((start + i & Integer.MAX_VALUE) % partitions.size()).tryRemove();
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        int drained = 0;
+        for (MessageQueue<T> partition : partitions) {
+            if (drained >= maxElements) {
+                break;
+            }
+            drained += partition.drainTo(target, maxElements - drained);
+        }
+        return drained;
+    }
+
+    private int[] allPartitions() {
+        int[] all = new int[partitions.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    /**
+     * Stops every partition and wakes idle readers.
+     */
+    @Override
+    public void stop() {
+        for (MessageQueue<T> partition : partitions) {
+            partition.stop();
+        }
+        idleLock.lock();
+        try {
+            available.signalAll();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (MessageQueue<T> partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean getIsRunning() {
+        return partitions.get(0).getIsRunning();
+    }
+
+    /**
+     * @return the combined metrics of all partitions.
+     */
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+}
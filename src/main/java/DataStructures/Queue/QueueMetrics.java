@@ -0,0 +1,94 @@
+package DataStructures.Queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead counters a queue keeps about its traffic.
+ * Counters are striped so producers and consumers updating them do not contend, and time is only measured on the
+ * slow path when a thread actually has to wait.
+ */
+public class QueueMetrics {
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final AtomicLong highWaterMark = new AtomicLong();
+    private final LongAdder blockedFullNanos = new LongAdder();
+    private final LongAdder blockedEmptyNanos = new LongAdder();
+
+    public QueueMetrics() {
+    }
+
+    /**
+     * Records elements added to the queue.
+     *
+     * @param count the number of elements added.
+     * @param depth the depth of the queue after they were added.
+     */
+    public void recordEnqueue(int count, long depth) {
+        enqueued.add(count);
+        recordDepth(depth);
+    }
+
+    /**
+     * Records a depth the queue was seen at, raising the high water mark if it is higher.
+     *
+     * @param depth the depth of the queue.
+     */
+    public void recordDepth(long depth) {
+        long max = highWaterMark.get();
+        while (depth > max && !highWaterMark.compareAndSet(max, depth)) {
+            max = highWaterMark.get();
+        }
+    }
+
+    /**
+     * Records elements removed from the queue.
+     *
+     * @param count the number of elements removed.
+     */
+    public void recordDequeue(int count) {
+        dequeued.add(count);
+    }
+
+    /**
+     * Records time a producer spent waiting for the queue to have space.
+     *
+     * @param startNanos the {@link System#nanoTime()} value when the producer started waiting.
+     */
+    public void recordBlockedFull(long startNanos) {
+        blockedFullNanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records time a consumer spent waiting for the queue to have an element.
+     *
+     * @param startNanos the {@link System#nanoTime()} value when the consumer started waiting.
+     */
+    public void recordBlockedEmpty(long startNanos) {
+        blockedEmptyNanos.add(System.nanoTime() - startNanos);
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    public long getDequeued() {
+        return dequeued.sum();
+    }
+
+    /**
+     * @return the highest depth recorded. Lock-free queues record an upper bound or a sample of their depth, so it can
+     *         be slightly above or below the true maximum.
+     */
+    public long getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    public long getBlockedFullNanos() {
+        return blockedFullNanos.sum();
+    }
+
+    public long getBlockedEmptyNanos() {
+        return blockedEmptyNanos.sum();
+    }
+}
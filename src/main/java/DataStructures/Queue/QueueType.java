@@ -0,0 +1,66 @@
+package DataStructures.Queue;
+
+import DataStructures.Queue.Wait.WaitStrategyType;
+
+/**
+ * The queue implementations a PubSub topic can be backed by.
+ */
+public enum QueueType {
+    /** The original doubly linked list queue. Allocates a node per element. */
+    LINKED,
+    /** A pre-allocated circular array queue. */
+    ARRAY,
+    /** A circular array queue with separate put and take locks. */
+    TWO_LOCK,
+    /** A lock-free multi-producer/multi-consumer ring that only blocks after a spin phase. */
+    LOCK_FREE,
+    /** A lock-free ring for exactly one producer thread and one consumer thread. */
+    SPSC;
+
+    /**
+     * Creates an empty queue of this type with its default wait strategy.
+     *
+     * @param capacity the maximum number of elements the queue can hold.
+     * @param <T>      the type of elements stored in the queue.
+     * @return a new queue.
+     */
+    public <T> MessageQueue<T> create(int capacity) {
+        return create(capacity, null);
+    }
+
+    /**
+     * Creates an empty queue of this type.
+     * Only the lock-free queues take a wait strategy; the monitor-based queues always block.
+     *
+     * @param capacity     the maximum number of elements the queue can hold.
+     * @param waitStrategy how producers and consumers wait, or null for the queue's default.
+     * @param <T>          the type of elements stored in the queue.
+     * @return a new queue.
+     * @throws IllegalArgumentException if a wait strategy is given for a monitor-based queue.
+     */
+    public <T> MessageQueue<T> create(int capacity, WaitStrategyType waitStrategy) {
+        if (waitStrategy != null && !isLockFree()) {
+            throw new IllegalArgumentException("Wait strategies only apply to lock-free queues, not " + this);
+        }
+        switch (this) {
+            case LINKED:
+                return new BlockingQueue<>(capacity);
+            case TWO_LOCK:
+                return new TwoLockBlockingQueue<>(capacity);
+            case LOCK_FREE:
+                return waitStrategy == null ? new LockFreeQueue<>(capacity) : new LockFreeQueue<>(capacity, waitStrategy);
+            case SPSC:
+                return waitStrategy == null ? new SpscQueue<>(capacity) : new SpscQueue<>(capacity, waitStrategy);
+            case ARRAY:
+            default:
+                return new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * @return true if the queue waits through a wait strategy rather than a monitor or lock condition.
+     */
+    public boolean isLockFree() {
+        return this == LOCK_FREE || this == SPSC;
+    }
+}
@@ -0,0 +1,363 @@
+package DataStructures.Queue;
+
+import Codec.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A queue that keeps up to its capacity in a pre-allocated in-memory ring and spills everything beyond that to
+ * append-only, memory-mapped segment files.
+ * Once anything has been spilled, new elements are appended to disk until the spilled backlog is drained, so
+ * consumers always see elements in FIFO order: first the in-memory elements, then the spilled ones.
+ * Producers never wait for space, so heap use stays bounded while buffering is limited only by disk.
+ *
+ * @param <T> the type of elements stored in the queue.
+ */
+public class SpillingQueue<T> implements MessageQueue<T> {
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int RECORD_HEADER = Integer.BYTES;
+
+    private final Object[] items;
+    private int head = 0;
+    private int tail = 0;
+    private int count = 0;
+    private final int MAX_SIZE;
+
+    private final Path directory;
+    private final Codec<T> codec;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long spilledCount = 0;
+    private long totalSpilled = 0;
+
+    private volatile boolean isRunning = true;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final QueueMetrics metrics = new QueueMetrics();
+
+    /**
+     * Constructs a spilling queue.
+     *
+     * @param size      the number of elements kept in memory before spilling to disk.
+     * @param directory the directory segment files are created in.
+     * @param codec     the codec used to write spilled elements to disk and read them back.
+     */
+    public SpillingQueue(int size, Path directory, Codec<T> codec) {
+        this.MAX_SIZE = size;
+        this.items = new Object[size];
+        this.directory = directory;
+        this.codec = codec;
+    }
+
+    /**
+     * Adds the specified value to the queue, spilling it to disk if the in-memory ring is full or already spilling.
+     * Never waits. Values added after the queue has been stopped are discarded.
+     *
+     * @param value the value to be added to the queue.
+     */
+    @Override
+    public void addToQueue(T value) {
+        tryAdd(value);
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) {
+        return tryAdd(value);
+    }
+
+    @Override
+    public boolean tryAdd(T value) {
+        lock.lock();
+        try {
+            if (!isRunning) {
+                return false;
+            }
+            append(value);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addAll(Collection<? extends T> values) {
+        lock.lock();
+        try {
+            if (!isRunning) {
+                return;
+            }
+            for (T value : values) {
+                append(value);
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the oldest element, reading it back from disk once the in-memory elements are used up.
+     * If the queue is empty and the queue is still running, the method will wait until an element is available.
+     * If the thread is interrupted while waiting, a RuntimeException will be thrown.
+     *
+     * @return the element removed from the queue, or null if the queue is empty and no longer running.
+     */
+    @Override
+    public T removeFromQueue() {
+        lock.lock();
+        try {
+            if (isEmpty() && isRunning) {
+                long start = System.nanoTime();
+                while (isEmpty() && isRunning) {
+                    notEmpty.await();
+                }
+                metrics.recordBlockedEmpty(start);
+            }
+            return take();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (isEmpty() && isRunning) {
+                long start = System.nanoTime();
+                try {
+                    while (isEmpty() && isRunning) {
+                        if (nanos <= 0) {
+                            return null;
+                        }
+                        nanos = notEmpty.awaitNanos(nanos);
+                    }
+                } finally {
+                    metrics.recordBlockedEmpty(start);
+                }
+            }
+            return take();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T tryRemove() {
+        lock.lock();
+        try {
+            return take();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            T value;
+            while (drained < maxElements && (value = take()) != null) {
+                target.add(value);
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the value in memory if nothing is spilled and the ring has space, and on disk otherwise. Must hold the lock.
+     */
+    private void append(T value) {
+        if (spilledCount == 0 && count < MAX_SIZE) {
+            items[tail] = value;
+            tail = next(tail);
+            count++;
+        } else {
+            spill(value);
+        }
+        metrics.recordEnqueue(1, count + spilledCount);
+    }
+
+    /**
+     * Takes the oldest element from memory, or from disk if memory is empty. Must hold the lock.
+     *
+     * @return the oldest element, or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private T take() {
+        T value;
+        if (count > 0) {
+            value = (T) items[head];
+            items[head] = null;
+            head = next(head);
+            count--;
+        } else if (spilledCount > 0) {
+            value = readSpilled();
+        } else {
+            if (!isRunning) {
+                closeSegments();
+            }
+            return null;
+        }
+        metrics.recordDequeue(1);
+        return value;
+    }
+
+    private void spill(T value) {
+        int recordSize = RECORD_HEADER + codec.encodedSize(value);
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.buffer.remaining() < recordSize) {
+            segment = openSegment(Math.max(SEGMENT_SIZE, recordSize));
+            segments.addLast(segment);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putInt(recordSize - RECORD_HEADER);
+        codec.encode(value, buffer);
+        segment.records++;
+        spilledCount++;
+        totalSpilled++;
+    }
+
+    private T readSpilled() {
+        Segment segment = segments.peekFirst();
+        ByteBuffer reader = segment.reader;
+        int length = reader.getInt();
+        int end = reader.position() + length;
+        T value = codec.decode(reader);
+        reader.position(end);
+        segment.records--;
+        spilledCount--;
+        if (segment.records == 0) {
+            if (segments.size() > 1) {
+                segments.removeFirst().close();
+            } else {
+                segment.reset();
+            }
+        }
+        return value;
+    }
+
+    private Segment openSegment(int size) {
+        try {
+            Path file = Files.createTempFile(directory, "spill-", ".seg");
+            return new Segment(file, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeSegments() {
+        while (!segments.isEmpty()) {
+            segments.removeFirst().close();
+        }
+    }
+
+    private boolean isEmpty() {
+        return count == 0 && spilledCount == 0;
+    }
+
+    private int next(int index) {
+        return ++index == MAX_SIZE ? 0 : index;
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            isRunning = false;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, count + spilledCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean getIsRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the number of elements that have been written to disk since the queue was created.
+     *
+     * @return the number of spilled elements.
+     */
+    public long getTotalSpilled() {
+        lock.lock();
+        try {
+            return totalSpilled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A memory-mapped segment file. Records are appended through one view of the mapping and read back in order
+     * through a second view, so writing and reading keep independent positions.
+     */
+    private static class Segment {
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final ByteBuffer reader;
+        private int records = 0;
+
+        Segment(Path file, int size) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.reader = buffer.duplicate();
+        }
+
+        /**
+         * Rewinds an empty segment so it can be reused for the next spill.
+         */
+        void reset() {
+            buffer.clear();
+            reader.clear();
+        }
+
+        void close() {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package DataStructures.Queue;
+
+import DataStructures.Queue.Wait.WaitStrategy;
+import DataStructures.Queue.Wait.WaitStrategyType;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A bounded single-producer/single-consumer queue.
+ * The producer is the only thread that moves the tail and the consumer is the only thread that moves the head,
+ * so both positions are published with release writes and read with acquire reads. No locks or compare-and-set
+ * instructions are used. Each side caches the other side's position and only re-reads it when the cached value
+ * says the queue is full or empty. When the queue is full or empty, each side waits according to its wait strategy,
+ * which by default spins and then parks without taking a lock.
+ * The enqueue and dequeue counts are read from the tail and head, so the fast path updates no counters. The depth for
+ * the high water mark is sampled every 64 enqueues and whenever the producer finds the queue full.
+ * Using this queue from more than one producer thread or more than one consumer thread corrupts it.
+ *
+ * @param <T> the type of elements stored in the queue.
+ */
+public class SpscQueue<T> implements MessageQueue<T> {
+    private static final long DEPTH_SAMPLE_MASK = 63;
+
+    private final Object[] items;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long headCache = 0;
+    private long tailCache = 0;
+    private volatile boolean isRunning = true;
+    private final int MAX_SIZE;
+    private final QueueMetrics metrics = new PositionMetrics();
+
+    private final WaitStrategy notFull;
+    private final WaitStrategy notEmpty;
+    private final BooleanSupplier canProduce = () -> !isFull() || !isRunning;
+    private final BooleanSupplier canConsume = () -> !isEmpty() || !isRunning;
+
+    public SpscQueue(int size, WaitStrategyType waitStrategy) {
+        this.MAX_SIZE = size;
+        this.items = new Object[size];
+        this.notFull = waitStrategy.create();
+        this.notEmpty = waitStrategy.create();
+    }
+
+    public SpscQueue(int size) {
+        this(size, WaitStrategyType.SPIN_PARK);
+    }
+
+    public SpscQueue() {
+        this(25);
+    }
+
+    /**
+     * Adds the specified value to the queue.
+     * If the queue is full the producer waits according to its wait strategy until the consumer frees a slot.
+     * Values added after the queue has been stopped are discarded.
+     *
+     * @param value the value to be added to the queue.
+     */
+    @Override
+    public void addToQueue(T value) {
+        while (isRunning) {
+            if (enqueue(value)) {
+                notEmpty.signal();
+                return;
+            }
+            long start = System.nanoTime();
+            notFull.await(canProduce);
+            metrics.recordBlockedFull(start);
+        }
+    }
+
+    /**
+     * Removes and returns an element from the queue.
+     * If the queue is empty the consumer waits according to its wait strategy until the producer adds an element.
+     *
+     * @return the element removed from the queue, or null if the queue is empty and no longer running.
+     */
+    @Override
+    public T removeFromQueue() {
+        while (true) {
+            T value = dequeue();
+            if (value != null) {
+                notFull.signal();
+                return value;
+            }
+            if (!isRunning && isEmpty()) {
+                return null;
+            }
+            long start = System.nanoTime();
+            notEmpty.await(canConsume);
+            metrics.recordBlockedEmpty(start);
+        }
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (isRunning) {
+            if (enqueue(value)) {
+                notEmpty.signal();
+                return true;
+            }
+            long start = System.nanoTime();
+            boolean ready = notFull.await(canProduce, deadline);
+            metrics.recordBlockedFull(start);
+            if (!ready) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            T value = dequeue();
+            if (value != null) {
+                notFull.signal();
+                return value;
+            }
+            if (!isRunning && isEmpty()) {
+                return null;
+            }
+            long start = System.nanoTime();
+            boolean ready = notEmpty.await(canConsume, deadline);
+            metrics.recordBlockedEmpty(start);
+            if (!ready) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAdd(T value) {
+        if (isRunning && enqueue(value)) {
+            notEmpty.signal();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public T tryRemove() {
+        T value = dequeue();
+        if (value != null) {
+            notFull.signal();
+        }
+        return value;
+    }
+
+    /**
+     * Adds every value, waking the consumer once before the producer has to wait and once at the end.
+     * Must only be called by the producer thread.
+     *
+     * @param values the values to be added to the queue.
+     */
+    @Override
+    public void addAll(Collection<? extends T> values) {
+        boolean added = false;
+        for (T value : values) {
+            while (isRunning && !enqueue(value)) {
+                if (added) {
+                    notEmpty.signal();
+                    added = false;
+                }
+                long start = System.nanoTime();
+                notFull.await(canProduce);
+                metrics.recordBlockedFull(start);
+            }
+            if (!isRunning) {
+                break;
+            }
+            added = true;
+        }
+        if (added) {
+            notEmpty.signal();
+        }
+    }
+
+    /**
+     * Removes the available elements. Must only be called by the consumer thread.
+     *
+     * @param target      the collection to add the removed elements to.
+     * @param maxElements the maximum number of elements to remove.
+     * @return the number of elements removed.
+     */
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        int drained = 0;
+        T value;
+        while (drained < maxElements && (value = dequeue()) != null) {
+            target.add(value);
+            drained++;
+        }
+        if (drained > 0) {
+            notFull.signal();
+        }
+        return drained;
+    }
+
+    /**
+     * Stores the value in the tail slot without blocking. Must only be called by the producer thread.
+     *
+     * @param value the value to be added to the queue.
+     * @return true if the value was added, false if the queue is full.
+     */
+    private boolean enqueue(T value) {
+        long t = tail.getPlain();
+        if (t - headCache >= MAX_SIZE) {
+            headCache = head.getAcquire();
+            if (t - headCache >= MAX_SIZE) {
+                metrics.recordDepth(MAX_SIZE);
+                return false;
+            }
+        }
+        items[(int) (t % MAX_SIZE)] = value;
+        tail.setRelease(t + 1);
+        if ((t & DEPTH_SAMPLE_MASK) == 0) {
+            // Reading the consumer's position pulls its cache line over, so the depth is only sampled.
+            metrics.recordDepth(t + 1 - head.getAcquire());
+        }
+        return true;
+    }
+
+    /**
+     * Takes the value in the head slot without blocking. Must only be called by the consumer thread.
+     *
+     * @return the element at the head of the queue, or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private T dequeue() {
+        long h = head.getPlain();
+        if (h >= tailCache) {
+            tailCache = tail.getAcquire();
+            if (h >= tailCache) {
+                return null;
+            }
+        }
+        int index = (int) (h % MAX_SIZE);
+        T value = (T) items[index];
+        items[index] = null;
+        head.setRelease(h + 1);
+        return value;
+    }
+
+    private boolean isFull() {
+        return tail.getAcquire() - head.getAcquire() >= MAX_SIZE;
+    }
+
+    private boolean isEmpty() {
+        return tail.getAcquire() == head.getAcquire();
+    }
+
+    @Override
+    public void stop() {
+        isRunning = false;
+        notFull.signalAll();
+        notEmpty.signalAll();
+    }
+
+    @Override
+    public int size() {
+        long size = tail.getAcquire() - head.getAcquire();
+        return (int) Math.max(0, Math.min(size, MAX_SIZE));
+    }
+
+    @Override
+    public boolean getIsRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Metrics whose enqueue and dequeue counts are the tail and head positions, which count exactly the elements
+     * added and removed.
+     */
+    private class PositionMetrics extends QueueMetrics {
+        @Override
+        public long getEnqueued() {
+            return tail.getAcquire();
+        }
+
+        @Override
+        public long getDequeued() {
+            return head.getAcquire();
+        }
+    }
+}
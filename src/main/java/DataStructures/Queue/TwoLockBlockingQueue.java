@@ -0,0 +1,434 @@
+package DataStructures.Queue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A blocking queue with separate locks for producers and consumers.
+ * Producers only contend with each other on the put lock and consumers only contend with each other on the take lock.
+ * The element count is shared through an atomic counter so each side can tell when to signal the other.
+ * Waiters are signalled one at a time on the condition they are waiting for instead of waking every thread.
+ *
+ * @param <T> the type of elements stored in the queue.
+ */
+public class TwoLockBlockingQueue<T> implements MessageQueue<T> {
+    private final Object[] items;
+    private int head = 0;
+    private int tail = 0;
+    private final AtomicInteger count = new AtomicInteger();
+    private volatile boolean isRunning = true;
+    private final int MAX_SIZE;
+    private final QueueMetrics metrics = new QueueMetrics();
+
+    private final ReentrantLock putLock = new ReentrantLock();
+    private final Condition notFull = putLock.newCondition();
+    private final ReentrantLock takeLock = new ReentrantLock();
+    private final Condition notEmpty = takeLock.newCondition();
+
+    public TwoLockBlockingQueue(int size) {
+        this.MAX_SIZE = size;
+        this.items = new Object[size];
+    }
+
+    public TwoLockBlockingQueue() {
+        this(25);
+    }
+
+    /**
+     * Adds the specified value to the tail of the queue while holding only the put lock.
+     * If the queue is at its maximum capacity and is still running, the method will wait on the notFull condition.
+     * If the thread is interrupted while waiting, a RuntimeException will be thrown.
+     * If space remains another producer is signalled, and if the queue was empty a single consumer is signalled.
+     *
+     * @param value the value to be added to the queue.
+     */
+    @Override
+    public void addToQueue(T value) {
+        int c;
+        putLock.lock();
+        try {
+            if (count.get() >= MAX_SIZE && isRunning) {
+                awaitNotFull();
+            }
+            if (!isRunning) {
+                return;
+            }
+            c = enqueue(value);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) {
+            signalNotEmpty();
+        }
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue while holding only the take lock.
+     * If the queue is empty and the queue is still running, the method will wait on the notEmpty condition.
+     * If elements remain another consumer is signalled, and if the queue was full a single producer is signalled.
+     *
+     * @return the element removed from the queue, or null if the queue is empty and no longer running.
+     */
+    @Override
+    public T removeFromQueue() {
+        T value;
+        int c;
+        takeLock.lock();
+        try {
+            if (count.get() == 0 && isRunning) {
+                awaitNotEmpty();
+            }
+            if (count.get() == 0) {
+                return null;
+            }
+            value = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) {
+                notEmpty.signal();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == MAX_SIZE) {
+            signalNotFull();
+        }
+        return value;
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        int c;
+        putLock.lockInterruptibly();
+        try {
+            if (count.get() >= MAX_SIZE && isRunning && !awaitNotFull(nanos)) {
+                return false;
+            }
+            if (!isRunning) {
+                return false;
+            }
+            c = enqueue(value);
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) {
+            signalNotEmpty();
+        }
+        return true;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        T value;
+        int c;
+        takeLock.lockInterruptibly();
+        try {
+            if (count.get() == 0 && isRunning && !awaitNotEmpty(nanos)) {
+                return null;
+            }
+            if (count.get() == 0) {
+                return null;
+            }
+            value = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == MAX_SIZE) {
+            signalNotFull();
+        }
+        return value;
+    }
+
+    @Override
+    public boolean tryAdd(T value) {
+        if (count.get() >= MAX_SIZE || !isRunning) {
+            return false;
+        }
+        int c;
+        putLock.lock();
+        try {
+            if (count.get() >= MAX_SIZE || !isRunning) {
+                return false;
+            }
+            c = enqueue(value);
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) {
+            signalNotEmpty();
+        }
+        return true;
+    }
+
+    @Override
+    public T tryRemove() {
+        if (count.get() == 0) {
+            return null;
+        }
+        T value;
+        int c;
+        takeLock.lock();
+        try {
+            if (count.get() == 0) {
+                return null;
+            }
+            value = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == MAX_SIZE) {
+            signalNotFull();
+        }
+        return value;
+    }
+
+    /**
+     * Adds every value while holding the put lock, signalling consumers only when the queue goes from empty to
+     * non-empty and before waiting for space.
+     *
+     * @param values the values to be added to the queue.
+     */
+    @Override
+    public void addAll(Collection<? extends T> values) {
+        boolean wasEmpty = false;
+        putLock.lock();
+        try {
+            int c = -1;
+            for (T value : values) {
+                if (count.get() >= MAX_SIZE && isRunning) {
+                    if (wasEmpty) {
+                        signalNotEmpty();
+                        wasEmpty = false;
+                    }
+                    awaitNotFull();
+                }
+                if (!isRunning) {
+                    break;
+                }
+                items[tail] = value;
+                tail = next(tail);
+                c = count.getAndIncrement();
+                metrics.recordEnqueue(1, c + 1);
+                if (c == 0) {
+                    wasEmpty = true;
+                }
+            }
+            if (c >= 0 && c + 1 < MAX_SIZE) {
+                notFull.signal();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            putLock.unlock();
+        }
+        if (wasEmpty) {
+            signalNotEmpty();
+        }
+    }
+
+    /**
+     * Removes the available elements while holding the take lock, signalling a producer only if the queue was full.
+     *
+     * @param target      the collection to add the removed elements to.
+     * @param maxElements the maximum number of elements to remove.
+     * @return the number of elements removed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        int drained;
+        int c;
+        takeLock.lock();
+        try {
+            drained = Math.min(maxElements, count.get());
+            if (drained <= 0) {
+                return 0;
+            }
+            for (int i = 0; i < drained; i++) {
+                target.add((T) items[head]);
+                items[head] = null;
+                head = next(head);
+            }
+            c = count.getAndAdd(-drained);
+            metrics.recordDequeue(drained);
+            if (c > drained) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == MAX_SIZE) {
+            signalNotFull();
+        }
+        return drained;
+    }
+
+    /**
+     * Stores the value at the tail and signals another producer if space remains. Must hold the put lock.
+     *
+     * @return the element count before the value was added.
+     */
+    private int enqueue(T value) {
+        items[tail] = value;
+        tail = next(tail);
+        int c = count.getAndIncrement();
+        metrics.recordEnqueue(1, c + 1);
+        if (c + 1 < MAX_SIZE) {
+            notFull.signal();
+        }
+        return c;
+    }
+
+    /**
+     * Takes the value at the head. Must hold the take lock.
+     */
+    @SuppressWarnings("unchecked")
+    private T dequeue() {
+        T value = (T) items[head];
+        items[head] = null;
+        head = next(head);
+        metrics.recordDequeue(1);
+        return value;
+    }
+
+    private int next(int index) {
+        return ++index == MAX_SIZE ? 0 : index;
+    }
+
+    /**
+     * Waits until the queue has space or is stopped, recording the time spent blocked. Must hold the put lock.
+     */
+    private void awaitNotFull() throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            while (count.get() >= MAX_SIZE && isRunning) {
+                notFull.await();
+            }
+        } finally {
+            metrics.recordBlockedFull(start);
+        }
+    }
+
+    /**
+     * Waits until the queue has an element or is stopped, recording the time spent blocked. Must hold the take lock.
+     */
+    private void awaitNotEmpty() throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            while (count.get() == 0 && isRunning) {
+                notEmpty.await();
+            }
+        } finally {
+            metrics.recordBlockedEmpty(start);
+        }
+    }
+
+    /**
+     * Waits up to the given time until the queue has space or is stopped. Must hold the put lock.
+     *
+     * @return false if the time elapsed while the queue was still full.
+     */
+    private boolean awaitNotFull(long nanos) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            while (count.get() >= MAX_SIZE && isRunning) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            metrics.recordBlockedFull(start);
+        }
+    }
+
+    /**
+     * Waits up to the given time until the queue has an element or is stopped. Must hold the take lock.
+     *
+     * @return false if the time elapsed while the queue was still empty.
+     */
+    private boolean awaitNotEmpty(long nanos) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            while (count.get() == 0 && isRunning) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            metrics.recordBlockedEmpty(start);
+        }
+    }
+
+    private void signalNotEmpty() {
+        takeLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    private void signalNotFull() {
+        putLock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the queue and wakes every waiting producer and consumer so they can observe the stop.
+     */
+    @Override
+    public void stop() {
+        isRunning = false;
+        putLock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            putLock.unlock();
+        }
+        takeLock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public boolean getIsRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public QueueMetrics getMetrics() {
+        return metrics;
+    }
+}
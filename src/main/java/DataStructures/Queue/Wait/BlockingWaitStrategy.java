@@ -0,0 +1,93 @@
+package DataStructures.Queue.Wait;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Optionally spins on the condition and then blocks on a monitor until signalled.
+ * Signalling only enters the monitor when a thread is actually blocked, so the fast path stays lock-free.
+ * A full fence before reading the waiter count makes sure a waiter that registered itself before checking the
+ * condition is always seen by a signaller that changed it, even when the queue published its change with a
+ * release write.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+    private final int spins;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public BlockingWaitStrategy(int spins) {
+        this.spins = spins;
+    }
+
+    public BlockingWaitStrategy() {
+        this(0);
+    }
+
+    @Override
+    public void await(BooleanSupplier ready) {
+        for (int i = 0; i < spins; i++) {
+            if (ready.getAsBoolean()) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        synchronized (this) {
+            waiting.incrementAndGet();
+            try {
+                while (!ready.getAsBoolean()) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public boolean await(BooleanSupplier ready, long deadline) throws InterruptedException {
+        for (int i = 0; i < spins; i++) {
+            if (ready.getAsBoolean()) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+        synchronized (this) {
+            waiting.incrementAndGet();
+            try {
+                while (!ready.getAsBoolean()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+                return true;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void signal() {
+        VarHandle.fullFence();
+        if (waiting.get() > 0) {
+            synchronized (this) {
+                notify();
+            }
+        }
+    }
+
+    @Override
+    public void signalAll() {
+        VarHandle.fullFence();
+        if (waiting.get() > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package DataStructures.Queue.Wait;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins on the condition without ever giving up the CPU.
+ * Gives the lowest hand-off latency at the cost of a fully busy core per waiting thread.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    public BusySpinWaitStrategy() {
+    }
+
+    @Override
+    public void await(BooleanSupplier ready) {
+        while (!ready.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public boolean await(BooleanSupplier ready, long deadline) throws InterruptedException {
+        while (!ready.getAsBoolean()) {
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+    @Override
+    public void signal() {
+    }
+
+    @Override
+    public void signalAll() {
+    }
+}
@@ -0,0 +1,81 @@
+package DataStructures.Queue.Wait;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins on the condition, then yields, and finally parks for short, bounded periods.
+ * The most recent parked thread is unparked when signalled. Any other waiter, or a signal that races with a thread
+ * going to sleep, is picked up when the timed park expires, so signalling never needs a lock or a fence.
+ */
+public class SpinParkWaitStrategy implements WaitStrategy {
+    private static final int YIELDS = 16;
+
+    private final int spins;
+    private final long parkNanos;
+    private volatile Thread parked = null;
+
+    public SpinParkWaitStrategy(int spins, long parkNanos) {
+        this.spins = spins;
+        this.parkNanos = parkNanos;
+    }
+
+    @Override
+    public void await(BooleanSupplier ready) {
+        int counter = 0;
+        while (!ready.getAsBoolean()) {
+            if (counter < spins) {
+                Thread.onSpinWait();
+            } else if (counter < spins + YIELDS) {
+                Thread.yield();
+            } else {
+                parked = Thread.currentThread();
+                if (!ready.getAsBoolean()) {
+                    LockSupport.parkNanos(this, parkNanos);
+                }
+                parked = null;
+            }
+            counter++;
+        }
+    }
+
+    @Override
+    public boolean await(BooleanSupplier ready, long deadline) throws InterruptedException {
+        int counter = 0;
+        while (!ready.getAsBoolean()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (counter < spins) {
+                Thread.onSpinWait();
+            } else if (counter < spins + YIELDS) {
+                Thread.yield();
+            } else {
+                parked = Thread.currentThread();
+                if (!ready.getAsBoolean()) {
+                    LockSupport.parkNanos(this, Math.min(parkNanos, remaining));
+                }
+                parked = null;
+            }
+            counter++;
+        }
+        return true;
+    }
+
+    @Override
+    public void signal() {
+        Thread waiter = parked;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    @Override
+    public void signalAll() {
+        signal();
+    }
+}
@@ -0,0 +1,54 @@
+package DataStructures.Queue.Wait;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins on the condition for a while and then yields the CPU between checks.
+ * Keeps latency low while letting other runnable threads make progress on a busy host.
+ */
+public class SpinYieldWaitStrategy implements WaitStrategy {
+    private final int spins;
+
+    public SpinYieldWaitStrategy(int spins) {
+        this.spins = spins;
+    }
+
+    @Override
+    public void await(BooleanSupplier ready) {
+        int counter = 0;
+        while (!ready.getAsBoolean()) {
+            if (counter++ < spins) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    @Override
+    public boolean await(BooleanSupplier ready, long deadline) throws InterruptedException {
+        int counter = 0;
+        while (!ready.getAsBoolean()) {
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (counter++ < spins) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void signal() {
+    }
+
+    @Override
+    public void signalAll() {
+    }
+}
@@ -0,0 +1,38 @@
+package DataStructures.Queue.Wait;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decides how a producer or consumer waits while a lock-free queue is full or empty.
+ * Each side of a queue owns its own instance, so an instance only ever has waiters of one kind.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until the given condition holds.
+     * Implementations may return before the condition holds, so callers must re-check their own state.
+     *
+     * @param ready the condition the caller is waiting for.
+     */
+    void await(BooleanSupplier ready);
+
+    /**
+     * Waits until the given condition holds or the deadline passes.
+     *
+     * @param ready    the condition the caller is waiting for.
+     * @param deadline the {@link System#nanoTime()} value at which to give up.
+     * @return true if the condition held when the method returned, false if the deadline passed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    boolean await(BooleanSupplier ready, long deadline) throws InterruptedException;
+
+    /**
+     * Wakes a single waiter after the condition it waits for may have become true.
+     */
+    void signal();
+
+    /**
+     * Wakes every waiter, for example after more than one slot became available or the queue was stopped.
+     */
+    void signalAll();
+}
@@ -0,0 +1,42 @@
+package DataStructures.Queue.Wait;
+
+/**
+ * The wait strategies a lock-free queue can use for its producers and consumers.
+ * Ordered from lowest hand-off latency and highest CPU use to highest latency and lowest CPU use.
+ */
+public enum WaitStrategyType {
+    /** Spin until the queue is ready. */
+    BUSY_SPIN,
+    /** Spin, then yield the CPU between checks. */
+    SPIN_YIELD,
+    /** Spin, yield, then park for short bounded periods. */
+    SPIN_PARK,
+    /** Spin, then block on a monitor until signalled. */
+    SPIN_BLOCK,
+    /** Block on a monitor until signalled, without spinning first. */
+    BLOCKING;
+
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * Creates a new wait strategy of this type. Every side of every queue needs its own instance.
+     *
+     * @return a new wait strategy.
+     */
+    public WaitStrategy create() {
+        switch (this) {
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            case SPIN_YIELD:
+                return new SpinYieldWaitStrategy(SPINS);
+            case SPIN_PARK:
+                return new SpinParkWaitStrategy(SPINS, PARK_NANOS);
+            case BLOCKING:
+                return new BlockingWaitStrategy();
+            case SPIN_BLOCK:
+            default:
+                return new BlockingWaitStrategy(SPINS);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package Input;
+
+import DataStructures.Graph.CsrGraph;
+import Model.Task.CoordinateTask;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Converts the text input files to their binary formats, so that later runs map the data instead of parsing it.
+ * The text file is parsed in slices small enough to be memory-mapped, so files of any size can be converted.
+ * Can be run from the command line as {@code BinaryConverter coordinates|graphs <text file> <binary file> <size>},
+ * where size is the number of related points per task or of vertices per graph.
+ */
+public class BinaryConverter {
+    private static final long SLICE_SIZE = 1L << 30;
+
+    private BinaryConverter() {
+    }
+
+    /**
+     * Converts a text coordinates file to a binary coordinates file. An incomplete last task is dropped.
+     *
+     * @param textFile      the text file.
+     * @param binaryFile    the binary file, replaced if it exists.
+     * @param pointsPerTask the number of related points in each task.
+     * @return the number of tasks converted.
+     * @throws IOException           if a file cannot be read or written.
+     * @throws NumberFormatException if a coordinate is malformed.
+     */
+    public static int convertCoordinates(Path textFile, Path binaryFile, int pointsPerTask) throws IOException {
+        try (FileSplitter splitter = new FileSplitter(textFile);
+                BinaryCoordinatesWriter writer = new BinaryCoordinatesWriter(binaryFile, pointsPerTask)) {
+            for (FileSlice slice : splitter.split(sliceCount(splitter))) {
+                CoordinatesParser parser = new CoordinatesParser(slice.map(), pointsPerTask);
+                CoordinateTask task;
+                while ((task = parser.next()) != null) {
+                    writer.write(task);
+                }
+            }
+            return writer.getTaskCount();
+        }
+    }
+
+    /**
+     * Converts a text graphs file to a binary graphs file. An incomplete last graph is dropped.
+     *
+     * @param textFile         the text file.
+     * @param binaryFile       the binary file, replaced if it exists.
+     * @param verticesPerGraph the number of vertices of each graph.
+     * @return the number of graphs converted.
+     * @throws IOException              if a file cannot be read or written.
+     * @throws NumberFormatException    if a vertex is malformed.
+     * @throws IllegalArgumentException if a vertex is outside 1 to the graph size or listed twice.
+     */
+    public static int convertGraphs(Path textFile, Path binaryFile, int verticesPerGraph) throws IOException {
+        try (FileSplitter splitter = new FileSplitter(textFile);
+                BinaryGraphWriter writer = new BinaryGraphWriter(binaryFile, verticesPerGraph)) {
+            for (FileSlice slice : splitter.split(sliceCount(splitter))) {
+                GraphParser parser = new GraphParser(slice.map(), verticesPerGraph);
+                CsrGraph graph;
+                while ((graph = parser.next()) != null) {
+                    writer.write(graph);
+                }
+            }
+            return writer.getGraphCount();
+        }
+    }
+
+    private static int sliceCount(FileSplitter splitter) {
+        return (int) (splitter.getSize() / SLICE_SIZE + 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: BinaryConverter coordinates|graphs <text file> <binary file> <size>");
+            System.exit(1);
+        }
+        Path textFile = Path.of(args[1]);
+        Path binaryFile = Path.of(args[2]);
+        int size = Integer.parseInt(args[3]);
+        int converted;
+        switch (args[0]) {
+            case "coordinates":
+                converted = convertCoordinates(textFile, binaryFile, size);
+                break;
+            case "graphs":
+                converted = convertGraphs(textFile, binaryFile, size);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown input kind: " + args[0]);
+        }
+        System.out.println("Converted " + converted + " " + args[0] + " records to " + binaryFile);
+    }
+}
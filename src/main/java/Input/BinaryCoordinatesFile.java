@@ -0,0 +1,102 @@
+package Input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary coordinates file written by {@link BinaryCoordinatesWriter}, split into task ranges that are read in
+ * parallel. Every task has the same size, so ranges are found without scanning the file. Readers memory-map the file
+ * and hand out tasks that are views of the mapping, so the coordinates are neither parsed nor copied.
+ */
+public class BinaryCoordinatesFile implements Closeable {
+    private final FileChannel channel;
+    private final int taskCount;
+    private final int pointsPerTask;
+
+    /**
+     * Opens the file and checks its header.
+     *
+     * @param file the binary file.
+     * @throws IOException if the file cannot be opened or is not a complete binary coordinates file.
+     */
+    public BinaryCoordinatesFile(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = BinaryFormat.readHeader(channel, BinaryFormat.COORDINATES_MAGIC,
+                    BinaryCoordinatesWriter.HEADER_SIZE);
+            this.taskCount = header.getInt();
+            this.pointsPerTask = header.getInt();
+            if (taskCount < 0 || pointsPerTask < 0) {
+                throw new IOException("Corrupt binary coordinates header");
+            }
+            long expected = BinaryCoordinatesWriter.HEADER_SIZE + (long) taskCount * getTaskSize();
+            if (channel.size() != expected) {
+                throw new IOException("Binary coordinates file holds " + channel.size() + " bytes, expected "
+                        + expected);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a file is a binary coordinates file rather than a text one.
+     *
+     * @param file the input file.
+     * @return true if the file starts with the binary coordinates magic number.
+     * @throws IOException if the file cannot be read.
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        return BinaryFormat.hasMagic(file, BinaryFormat.COORDINATES_MAGIC);
+    }
+
+    /**
+     * Splits the file into the given number of readers covering its tasks without overlap, in file order.
+     * If the file has fewer tasks than readers, the last readers are empty.
+     *
+     * @param parts the number of readers.
+     * @return the readers.
+     */
+    public List<BinaryCoordinatesReader> split(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Slice count must be positive: " + parts);
+        }
+        List<BinaryCoordinatesReader> readers = new ArrayList<>(parts);
+        int start = 0;
+        for (int i = 1; i <= parts; i++) {
+            int end = (int) ((long) taskCount * i / parts);
+            readers.add(new BinaryCoordinatesReader(channel, pointsPerTask, start, end));
+            start = end;
+        }
+        return readers;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public int getPointsPerTask() {
+        return pointsPerTask;
+    }
+
+    private long getTaskSize() {
+        return 2L * (pointsPerTask + 1) * Double.BYTES;
+    }
+
+    /**
+     * Closes the file. Tasks already read stay valid.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
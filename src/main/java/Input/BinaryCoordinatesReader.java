@@ -0,0 +1,65 @@
+package Input;
+
+import Model.Task.CoordinateTask;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a range of tasks of a binary coordinates file, mapping the range a window at a time.
+ * Every task is a view of the mapped window, which stays mapped as long as any of its tasks is referenced.
+ */
+public class BinaryCoordinatesReader implements RecordReader<CoordinateTask> {
+    private final FileChannel channel;
+    private final int taskSize;
+    private final int tasksPerWindow;
+    private final int end;
+    private int next;
+    private DoubleBuffer window;
+    private int windowStart;
+    private int windowEnd;
+
+    BinaryCoordinatesReader(FileChannel channel, int pointsPerTask, int start, int end) {
+        this.channel = channel;
+        this.taskSize = 2 * (pointsPerTask + 1);
+        this.tasksPerWindow = (int) Math.max(1, BinaryFormat.WINDOW_SIZE / ((long) taskSize * Double.BYTES));
+        this.next = start;
+        this.end = end;
+        this.windowStart = start;
+        this.windowEnd = start;
+    }
+
+    /**
+     * Reads the next task of the range.
+     *
+     * @return the task, or null if the range has been read.
+     * @throws UncheckedIOException if the file cannot be mapped.
+     */
+    @Override
+    public CoordinateTask next() {
+        if (next >= end) {
+            return null;
+        }
+        if (next >= windowEnd) {
+            mapWindow();
+        }
+        CoordinateTask task = new CoordinateTask(window.slice((next - windowStart) * taskSize, taskSize));
+        next++;
+        return task;
+    }
+
+    private void mapWindow() {
+        int tasks = Math.min(tasksPerWindow, end - next);
+        long position = BinaryCoordinatesWriter.HEADER_SIZE + (long) next * taskSize * Double.BYTES;
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) tasks * taskSize * Double.BYTES)
+                    .order(BinaryFormat.ORDER).asDoubleBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        windowStart = next;
+        windowEnd = next + tasks;
+    }
+}
@@ -0,0 +1,106 @@
+package Input;
+
+import Model.Task.CoordinateTask;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes coordinate tasks to a binary coordinates file, the format read by {@link BinaryCoordinatesFile}.
+ * The file is a 16-byte header of {@code [magic][version][int taskCount][int pointsPerTask]} followed by every task's
+ * interleaved coordinates as packed little-endian doubles, so task {@code i} starts at a fixed offset. The task count
+ * is written into the header when the writer is closed.
+ */
+public class BinaryCoordinatesWriter implements Closeable {
+    static final int HEADER_SIZE = 16;
+
+    private final FileChannel channel;
+    private final int pointsPerTask;
+    private final int taskSize;
+    private final ByteBuffer buffer;
+    private long position = HEADER_SIZE;
+    private int taskCount = 0;
+
+    /**
+     * Creates the file, replacing it if it exists.
+     *
+     * @param file          the binary file.
+     * @param pointsPerTask the number of related points in each task.
+     * @throws IOException if the file cannot be created.
+     */
+    public BinaryCoordinatesWriter(Path file, int pointsPerTask) throws IOException {
+        if (pointsPerTask < 0) {
+            throw new IllegalArgumentException("Points per task must not be negative: " + pointsPerTask);
+        }
+        this.pointsPerTask = pointsPerTask;
+        this.taskSize = 2 * (pointsPerTask + 1) * Double.BYTES;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BinaryFormat.WRITE_BUFFER_SIZE, taskSize))
+                .order(BinaryFormat.ORDER);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        writeHeader();
+    }
+
+    /**
+     * Appends a task.
+     *
+     * @param task the task, which must have the file's number of related points.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(CoordinateTask task) throws IOException {
+        if (task.getPointCount() != pointsPerTask) {
+            throw new IllegalArgumentException("Task has " + task.getPointCount() + " points, expected "
+                    + pointsPerTask);
+        }
+        if (taskCount == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Binary coordinates file is full");
+        }
+        if (buffer.remaining() < taskSize) {
+            flush();
+        }
+        buffer.asDoubleBuffer().put(task.getCoordinates());
+        buffer.position(buffer.position() + taskSize);
+        taskCount++;
+    }
+
+    /**
+     * @return the number of tasks written so far.
+     */
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        BinaryFormat.writeFully(channel, buffer, position);
+        position += length;
+        buffer.clear();
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BinaryFormat.ORDER);
+        header.putInt(BinaryFormat.COORDINATES_MAGIC).putInt(BinaryFormat.VERSION).putInt(taskCount)
+                .putInt(pointsPerTask).flip();
+        BinaryFormat.writeFully(channel, header, 0);
+    }
+
+    /**
+     * Writes the buffered tasks and the final task count, and closes the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            writeHeader();
+        } finally {
+            channel.close();
+        }
+    }
+}
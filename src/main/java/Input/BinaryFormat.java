@@ -0,0 +1,86 @@
+package Input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Constants and header handling shared by the binary input formats.
+ * Every binary file starts with a little-endian header of a magic number, a format version and the record count,
+ * followed by format-specific fields. All values in the files are little-endian so they can be viewed in place on the
+ * usual hardware.
+ */
+final class BinaryFormat {
+    /**
+     * "PSCT" when read as bytes.
+     */
+    static final int COORDINATES_MAGIC = 0x54435350;
+    /**
+     * "PSCG" when read as bytes.
+     */
+    static final int GRAPHS_MAGIC = 0x47435350;
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    /**
+     * The most bytes a reader maps at once. Records are never split across windows.
+     */
+    static final long WINDOW_SIZE = 64L << 20;
+    static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Reads a header and checks its magic number and version.
+     *
+     * @param channel the file's channel.
+     * @param magic   the magic number of the expected format.
+     * @param size    the size of the format's header.
+     * @return the header, positioned after the version.
+     * @throws IOException if the file is not in the expected format.
+     */
+    static ByteBuffer readHeader(FileChannel channel, int magic, int size) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(size).order(ORDER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Binary input file is shorter than its header");
+            }
+        }
+        header.flip();
+        if (header.getInt() != magic) {
+            throw new IOException("Not a binary input file of the expected kind");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary input version: " + version);
+        }
+        return header;
+    }
+
+    /**
+     * Checks whether a file starts with the given magic number.
+     */
+    static boolean hasMagic(Path file, int magic) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ORDER);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return false;
+                }
+            }
+            return buffer.getInt(0) == magic;
+        }
+    }
+
+    /**
+     * Writes the whole buffer at the given position of the channel.
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
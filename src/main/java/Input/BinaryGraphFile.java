@@ -0,0 +1,124 @@
+package Input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary graphs file written by {@link BinaryGraphWriter}, split into graph ranges that are read in parallel.
+ * The file's index gives where every graph starts, so ranges of roughly equal size are found without scanning the
+ * graphs. Readers memory-map the file and hand out graphs whose arrays are views of the mapping, so the graphs are
+ * neither parsed nor copied.
+ */
+public class BinaryGraphFile implements Closeable {
+    private final FileChannel channel;
+    private final int graphCount;
+    private final int verticesPerGraph;
+    private final LongBuffer index;
+
+    /**
+     * Opens the file, checks its header and maps its index.
+     *
+     * @param file the binary file.
+     * @throws IOException if the file cannot be opened or is not a complete binary graphs file.
+     */
+    public BinaryGraphFile(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = BinaryFormat.readHeader(channel, BinaryFormat.GRAPHS_MAGIC,
+                    BinaryGraphWriter.HEADER_SIZE);
+            this.graphCount = header.getInt();
+            this.verticesPerGraph = header.getInt();
+            long indexPosition = header.getLong();
+            long indexSize = ((long) graphCount + 1) * Long.BYTES;
+            if (graphCount < 0 || verticesPerGraph < 0 || indexPosition < BinaryGraphWriter.HEADER_SIZE
+                    || channel.size() != indexPosition + indexSize) {
+                throw new IOException("Corrupt binary graphs header");
+            }
+            this.index = channel.map(FileChannel.MapMode.READ_ONLY, indexPosition, indexSize)
+                    .order(BinaryFormat.ORDER).asLongBuffer();
+            if (index.get(0) != BinaryGraphWriter.HEADER_SIZE || index.get(graphCount) != indexPosition) {
+                throw new IOException("Corrupt binary graphs index");
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a file is a binary graphs file rather than a text one.
+     *
+     * @param file the input file.
+     * @return true if the file starts with the binary graphs magic number.
+     * @throws IOException if the file cannot be read.
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        return BinaryFormat.hasMagic(file, BinaryFormat.GRAPHS_MAGIC);
+    }
+
+    /**
+     * Splits the file into the given number of readers covering its graphs without overlap, in file order.
+     * Range boundaries are the first graphs starting at or after evenly spaced offsets. If the file has fewer graphs
+     * than readers, the last readers are empty.
+     *
+     * @param parts the number of readers.
+     * @return the readers.
+     */
+    public List<BinaryGraphReader> split(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Slice count must be positive: " + parts);
+        }
+        List<BinaryGraphReader> readers = new ArrayList<>(parts);
+        long first = index.get(0);
+        long size = index.get(graphCount) - first;
+        int start = 0;
+        for (int i = 1; i <= parts; i++) {
+            int end = i == parts ? graphCount : Math.max(start, graphAt(first + size * i / parts));
+            readers.add(new BinaryGraphReader(channel, index.duplicate(), verticesPerGraph, start, end));
+            start = end;
+        }
+        return readers;
+    }
+
+    /**
+     * Finds the first graph starting at or after the given offset, or the graph count if there is none.
+     */
+    private int graphAt(long offset) {
+        int low = 0;
+        int high = graphCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (index.get(middle) < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public int getGraphCount() {
+        return graphCount;
+    }
+
+    public int getVerticesPerGraph() {
+        return verticesPerGraph;
+    }
+
+    /**
+     * Closes the file. Graphs already read stay valid.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,79 @@
+package Input;
+
+import DataStructures.Graph.CsrGraph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a range of graphs of a binary graphs file, mapping the range a window of whole graphs at a time.
+ * Every graph's arrays are views of the mapped window, which stays mapped as long as any of its graphs is referenced.
+ */
+public class BinaryGraphReader implements RecordReader<CsrGraph> {
+    private final FileChannel channel;
+    private final LongBuffer index;
+    private final int verticesPerGraph;
+    private final int end;
+    private int next;
+    private IntBuffer window;
+    private long windowPosition;
+    private int windowEnd;
+
+    BinaryGraphReader(FileChannel channel, LongBuffer index, int verticesPerGraph, int start, int end) {
+        this.channel = channel;
+        this.index = index;
+        this.verticesPerGraph = verticesPerGraph;
+        this.next = start;
+        this.end = end;
+        this.windowEnd = start;
+    }
+
+    /**
+     * Reads the next graph of the range.
+     *
+     * @return the graph, or null if the range has been read.
+     * @throws UncheckedIOException     if the file cannot be mapped.
+     * @throws IllegalArgumentException if the graph's arrays do not describe a graph.
+     */
+    @Override
+    public CsrGraph next() {
+        if (next >= end) {
+            return null;
+        }
+        if (next >= windowEnd) {
+            mapWindow();
+        }
+        int start = (int) ((index.get(next) - windowPosition) / Integer.BYTES);
+        int length = (int) ((index.get(next + 1) - index.get(next)) / Integer.BYTES);
+        int edges = length - verticesPerGraph - 1;
+        if (edges < 0 || window.get(start + verticesPerGraph) != edges) {
+            throw new IllegalArgumentException("Graph " + next + " does not match the file's index");
+        }
+        CsrGraph graph = new CsrGraph(window.slice(start, verticesPerGraph + 1),
+                window.slice(start + verticesPerGraph + 1, edges));
+        next++;
+        return graph;
+    }
+
+    /**
+     * Maps the next graphs of the range, as many as fit in a window but at least one.
+     */
+    private void mapWindow() {
+        long position = index.get(next);
+        int last = next + 1;
+        while (last < end && index.get(last + 1) - position <= BinaryFormat.WINDOW_SIZE) {
+            last++;
+        }
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, index.get(last) - position)
+                    .order(BinaryFormat.ORDER).asIntBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        windowPosition = position;
+        windowEnd = last;
+    }
+}
@@ -0,0 +1,121 @@
+package Input;
+
+import DataStructures.Graph.CsrGraph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes graphs to a binary graphs file, the format read by {@link BinaryGraphFile}.
+ * The file is a 24-byte header of {@code [magic][version][int graphCount][int verticesPerGraph][long indexPosition]},
+ * followed by every graph's compressed sparse row arrays as little-endian ints, {@code [offsets: n + 1][targets: e]},
+ * and ends with an index of {@code graphCount + 1} longs giving where each graph starts and where the last one ends.
+ * The index and the header's counts are written when the writer is closed.
+ */
+public class BinaryGraphWriter implements Closeable {
+    static final int HEADER_SIZE = 24;
+
+    private final FileChannel channel;
+    private final int verticesPerGraph;
+    private ByteBuffer buffer;
+    private long position = HEADER_SIZE;
+    private long[] index = new long[1024];
+    private int graphCount = 0;
+
+    /**
+     * Creates the file, replacing it if it exists.
+     *
+     * @param file             the binary file.
+     * @param verticesPerGraph the number of vertices of each graph.
+     * @throws IOException if the file cannot be created.
+     */
+    public BinaryGraphWriter(Path file, int verticesPerGraph) throws IOException {
+        if (verticesPerGraph < 0) {
+            throw new IllegalArgumentException("Vertices per graph must not be negative: " + verticesPerGraph);
+        }
+        this.verticesPerGraph = verticesPerGraph;
+        this.buffer = ByteBuffer.allocateDirect(BinaryFormat.WRITE_BUFFER_SIZE).order(BinaryFormat.ORDER);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        writeHeader(0);
+    }
+
+    /**
+     * Appends a graph.
+     *
+     * @param graph the graph, which must have the file's number of vertices.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(CsrGraph graph) throws IOException {
+        if (graph.getVertexCount() != verticesPerGraph) {
+            throw new IllegalArgumentException("Graph has " + graph.getVertexCount() + " vertices, expected "
+                    + verticesPerGraph);
+        }
+        if (graphCount == Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("Binary graphs file is full");
+        }
+        int size = (verticesPerGraph + 1 + graph.getEdgeCount()) * Integer.BYTES;
+        if (buffer.remaining() < size) {
+            flush();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocateDirect(size).order(BinaryFormat.ORDER);
+            }
+        }
+        if (graphCount == index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        index[graphCount++] = position + buffer.position();
+        buffer.asIntBuffer().put(graph.getOffsets()).put(graph.getTargets());
+        buffer.position(buffer.position() + size);
+    }
+
+    /**
+     * @return the number of graphs written so far.
+     */
+    public int getGraphCount() {
+        return graphCount;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        BinaryFormat.writeFully(channel, buffer, position);
+        position += length;
+        buffer.clear();
+    }
+
+    private void writeHeader(long indexPosition) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BinaryFormat.ORDER);
+        header.putInt(BinaryFormat.GRAPHS_MAGIC).putInt(BinaryFormat.VERSION).putInt(graphCount)
+                .putInt(verticesPerGraph).putLong(indexPosition).flip();
+        BinaryFormat.writeFully(channel, header, 0);
+    }
+
+    /**
+     * Writes the buffered graphs, the index and the final counts, and closes the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            long indexPosition = position;
+            for (int i = 0; i <= graphCount; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush();
+                }
+                buffer.putLong(i < graphCount ? index[i] : indexPosition);
+            }
+            flush();
+            writeHeader(indexPosition);
+        } finally {
+            channel.close();
+        }
+    }
+}
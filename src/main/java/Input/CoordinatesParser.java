@@ -0,0 +1,171 @@
+package Input;
+
+import Model.Task.CoordinateTask;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses coordinate tasks straight from the bytes of a buffer, typically a memory-mapped slice of the input file.
+ * The format is the one the coordinates file is written in: a task is one line of {@code x, y} for its point followed
+ * by one line per related point, and tasks are separated by blank lines.
+ * Coordinates are parsed digit by digit into the task's primitive array, so no String or boxed value is created per
+ * coordinate. The parser reads between the buffer's position and limit without changing either.
+ */
+public class CoordinatesParser implements RecordReader<CoordinateTask> {
+    private final ByteBuffer buffer;
+    private final int pointsPerTask;
+    private final int limit;
+    private int position;
+
+    /**
+     * Constructs a parser over the remaining bytes of a buffer.
+     *
+     * @param buffer        the buffer holding whole tasks.
+     * @param pointsPerTask the number of related points in each task.
+     */
+    public CoordinatesParser(ByteBuffer buffer, int pointsPerTask) {
+        this.buffer = buffer;
+        this.pointsPerTask = pointsPerTask;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Parses the next task.
+     *
+     * @return the task, or null if there are no more tasks or the last one is incomplete.
+     * @throws NumberFormatException if a coordinate is malformed.
+     */
+    @Override
+    public CoordinateTask next() {
+        while (position < limit && isLineEnd(buffer.get(position))) {
+            position++;
+        }
+        double[] coordinates = new double[2 * (pointsPerTask + 1)];
+        for (int i = 0; i < coordinates.length; i += 2) {
+            skipSpaces();
+            if (position >= limit || isLineEnd(buffer.get(position))) {
+                return null;
+            }
+            coordinates[i] = parseDouble();
+            skipSpaces();
+            if (position < limit && buffer.get(position) == ',') {
+                position++;
+            }
+            skipSpaces();
+            coordinates[i + 1] = parseDouble();
+            skipLine();
+        }
+        return new CoordinateTask(coordinates);
+    }
+
+    /**
+     * Parses a decimal number in the syntax {@link Double#toString} produces: an optional sign, digits with an
+     * optional fraction, and an optional exponent.
+     */
+    private double parseDouble() {
+        int start = position;
+        boolean negative = false;
+        if (position < limit && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+        long significand = 0;
+        int digits = 0;
+        int power = 0;
+        boolean exact = true;
+        boolean any = false;
+        byte b;
+        while (position < limit && isDigit(b = buffer.get(position))) {
+            if (digits < DecimalConversion.MAX_DIGITS) {
+                significand = significand * 10 + (b - '0');
+                if (significand != 0) {
+                    digits++;
+                }
+            } else {
+                exact = false;
+            }
+            any = true;
+            position++;
+        }
+        if (position < limit && buffer.get(position) == '.') {
+            position++;
+            while (position < limit && isDigit(b = buffer.get(position))) {
+                if (digits < DecimalConversion.MAX_DIGITS) {
+                    significand = significand * 10 + (b - '0');
+                    power--;
+                    if (significand != 0) {
+                        digits++;
+                    }
+                } else {
+                    exact = false;
+                }
+                any = true;
+                position++;
+            }
+        }
+        if (!any) {
+            throw malformed(start);
+        }
+        if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < limit && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                negativeExponent = buffer.get(position) == '-';
+                position++;
+            }
+            int exponent = 0;
+            boolean exponentDigits = false;
+            while (position < limit && isDigit(b = buffer.get(position))) {
+                exponent = Math.min(exponent * 10 + (b - '0'), 100_000);
+                exponentDigits = true;
+                position++;
+            }
+            if (!exponentDigits) {
+                throw malformed(start);
+            }
+            power += negativeExponent ? -exponent : exponent;
+        }
+        double value = exact ? DecimalConversion.toDouble(significand, power, negative) : Double.NaN;
+        return Double.isNaN(value) ? Double.parseDouble(text(start, position)) : value;
+    }
+
+    private void skipSpaces() {
+        while (position < limit && (buffer.get(position) == ' ' || buffer.get(position) == '\t')) {
+            position++;
+        }
+    }
+
+    /**
+     * Skips the rest of the line, including its line break.
+     */
+    private void skipLine() {
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        position++;
+    }
+
+    private NumberFormatException malformed(int start) {
+        int end = start;
+        while (end < limit && !isLineEnd(buffer.get(end))) {
+            end++;
+        }
+        return new NumberFormatException("Malformed coordinate: " + text(start, end));
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+}
@@ -0,0 +1,126 @@
+package Input;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal significand and power of ten to the nearest double without going through a String.
+ * Values that fit the exact double arithmetic fast path are converted with a single multiplication or division, and
+ * the rest with the Eisel-Lemire algorithm, which multiplies the significand by a 128-bit approximation of the power
+ * of five. Both give the same correctly rounded result as {@link Double#parseDouble}. When the algorithm cannot
+ * decide the rounding, or the value would be subnormal, NaN is returned and the caller falls back to
+ * {@link Double#parseDouble}.
+ */
+final class DecimalConversion {
+    /**
+     * The largest number of significant digits a significand can hold without overflowing 64 bits.
+     */
+    static final int MAX_DIGITS = 19;
+
+    private static final int MIN_POWER = -342;
+    private static final int MAX_POWER = 308;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * The high and low 64 bits of 5^q for every q from MIN_POWER to MAX_POWER, normalized so the top bit is set.
+     */
+    private static final long[] POWERS_OF_FIVE = powersOfFive();
+
+    private DecimalConversion() {
+    }
+
+    /**
+     * Returns the double nearest to {@code significand * 10^power}.
+     *
+     * @param significand the decimal digits as an unsigned 64-bit value.
+     * @param power       the power of ten.
+     * @param negative    whether the value is negative.
+     * @return the double, or NaN if the value must be converted with {@link Double#parseDouble}.
+     */
+    static double toDouble(long significand, int power, boolean negative) {
+        double value = toPositiveDouble(significand, power);
+        return negative ? -value : value;
+    }
+
+    private static double toPositiveDouble(long w, int q) {
+        if (w == 0 || q < MIN_POWER) {
+            return 0.0;
+        }
+        if (q > MAX_POWER) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // Both operands are exact doubles, so a single IEEE operation rounds correctly.
+        if (q >= -22 && q <= 22 && Long.compareUnsigned(w, 1L << 53) <= 0) {
+            return q < 0 ? (double) w / EXACT_POWERS_OF_TEN[-q] : (double) w * EXACT_POWERS_OF_TEN[q];
+        }
+        int leadingZeros = Long.numberOfLeadingZeros(w);
+        w <<= leadingZeros;
+        int index = 2 * (q - MIN_POWER);
+        long high = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        long precisionMask = -1L >>> 55;
+        if ((high & precisionMask) == precisionMask) {
+            long carry = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            low += carry;
+            if (Long.compareUnsigned(carry, low) > 0) {
+                high++;
+            }
+        }
+        if (low == -1L && (q < -27 || q > 55)) {
+            return Double.NaN;
+        }
+        int upperBit = (int) (high >>> 63);
+        long mantissa = high >>> (upperBit + 9);
+        int exponent = ((217706 * q) >> 16) + 63 + upperBit - leadingZeros + 1023;
+        if (exponent <= 0) {
+            return Double.NaN;
+        }
+        // An exact halfway case rounds to even.
+        if (Long.compareUnsigned(low, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1
+                && (mantissa << (upperBit + 9)) == high) {
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << 52)) {
+            mantissa = 1L << 52;
+            exponent++;
+        }
+        mantissa &= ~(1L << 52);
+        if (exponent >= 0x7FF) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Double.longBitsToDouble(mantissa | ((long) exponent << 52));
+    }
+
+    private static long[] powersOfFive() {
+        long[] table = new long[2 * (MAX_POWER - MIN_POWER + 1)];
+        BigInteger twoTo128 = BigInteger.ONE.shiftLeft(128);
+        BigInteger twoTo127 = BigInteger.ONE.shiftLeft(127);
+        for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+            BigInteger c;
+            if (q < 0) {
+                BigInteger power = BigInteger.valueOf(5).pow(-q);
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                while (c.compareTo(twoTo128) >= 0) {
+                    c = c.shiftRight(1);
+                }
+            } else {
+                c = BigInteger.valueOf(5).pow(q);
+                while (c.compareTo(twoTo127) < 0) {
+                    c = c.shiftLeft(1);
+                }
+                while (c.compareTo(twoTo128) >= 0) {
+                    c = c.shiftRight(1);
+                }
+            }
+            int index = 2 * (q - MIN_POWER);
+            table[index] = c.shiftRight(64).longValue();
+            table[index + 1] = c.longValue();
+        }
+        return table;
+    }
+}
@@ -0,0 +1,101 @@
+package Input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A byte range of an input file holding whole records, read with positional reads so several slices of the same
+ * file can be read concurrently through one channel.
+ */
+public class FileSlice {
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+
+    FileSlice(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Opens a stream over the slice's bytes.
+     *
+     * @return a stream that ends at the end of the slice.
+     */
+    public InputStream newInputStream() {
+        return new SliceInputStream();
+    }
+
+    /**
+     * Opens a UTF-8 reader over the slice's text.
+     *
+     * @return a reader that ends at the end of the slice.
+     */
+    public Reader newReader() {
+        return new InputStreamReader(newInputStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maps the slice's bytes read-only. The mapping stays valid after the file is closed.
+     *
+     * @return a buffer holding the slice.
+     * @throws IOException if the file cannot be mapped.
+     */
+    public MappedByteBuffer map() throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start;
+    }
+
+    /**
+     * Reads the slice from the shared channel at its own position, leaving the channel's position untouched.
+     */
+    private class SliceInputStream extends InputStream {
+        private long position = start;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            long remaining = end - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, remaining)), position);
+            if (read == -1) {
+                return -1;
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
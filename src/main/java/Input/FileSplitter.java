@@ -0,0 +1,99 @@
+package Input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an input file of records separated by blank lines into disjoint byte ranges, one per producer, so that every
+ * record is read exactly once and producers read their ranges in parallel.
+ * Range boundaries start at evenly spaced offsets and are moved forward to the start of the next record. Every slice
+ * reads the file with positional reads on one shared channel, which stays open until the splitter is closed.
+ */
+public class FileSplitter implements Closeable {
+    private static final int SCAN_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final long size;
+
+    /**
+     * Opens the file to be split.
+     *
+     * @param file the input file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public FileSplitter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * Splits the file into the given number of slices covering it without overlap, in file order.
+     * A slice holds whole records only. If the file has fewer records than slices, the last slices are empty.
+     *
+     * @param parts the number of slices.
+     * @return the slices.
+     * @throws IOException if the file cannot be read.
+     */
+    public List<FileSlice> split(int parts) throws IOException {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Slice count must be positive: " + parts);
+        }
+        List<FileSlice> slices = new ArrayList<>(parts);
+        long start = 0;
+        for (int i = 1; i <= parts; i++) {
+            long end = i == parts ? size : Math.max(start, recordStart(size * i / parts));
+            slices.add(new FileSlice(channel, start, end));
+            start = end;
+        }
+        return slices;
+    }
+
+    /**
+     * Finds the first record start at or after the given offset: the end of the file or the offset just after a
+     * blank line.
+     */
+    private long recordStart(long offset) throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+        // Include the two bytes before the offset so a separator ending exactly at it is found.
+        long position = Math.max(0, offset - 2);
+        byte previous = 0;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte current = buffer.get(i);
+                long end = position + i + 1;
+                if (previous == '\n' && current == '\n' && end >= offset) {
+                    return end;
+                }
+                previous = current;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * @return the size of the file in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
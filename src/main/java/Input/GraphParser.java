@@ -0,0 +1,136 @@
+package Input;
+
+import DataStructures.Graph.CsrGraph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses graphs straight from the bytes of a buffer into compressed sparse row form, typically from a
+ * memory-mapped slice of the input file.
+ * The format is the one the graphs file is written in: a graph is one line per vertex holding the vertex followed by
+ * its neighbours, comma separated and labelled from 1, and graphs are separated by blank lines. Lines may come in any
+ * order. Neighbours are parsed into a scratch array that is reused across graphs, so each graph costs only its own
+ * two arrays.
+ */
+public class GraphParser implements RecordReader<CsrGraph> {
+    private final ByteBuffer buffer;
+    private final int verticesPerGraph;
+    private final int limit;
+    private int position;
+    private int[] scratch = new int[64];
+    private final int[] rowStart;
+    private final int[] rowLength;
+
+    /**
+     * Constructs a parser over the remaining bytes of a buffer.
+     *
+     * @param buffer           the buffer holding whole graphs.
+     * @param verticesPerGraph the number of vertices, and so lines, of each graph.
+     */
+    public GraphParser(ByteBuffer buffer, int verticesPerGraph) {
+        this.buffer = buffer;
+        this.verticesPerGraph = verticesPerGraph;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+        this.rowStart = new int[verticesPerGraph];
+        this.rowLength = new int[verticesPerGraph];
+    }
+
+    /**
+     * Parses the next graph.
+     *
+     * @return the graph, or null if there are no more graphs or the last one is incomplete.
+     * @throws NumberFormatException    if a vertex is malformed.
+     * @throws IllegalArgumentException if a vertex is outside 1 to the graph size or listed twice.
+     */
+    @Override
+    public CsrGraph next() {
+        while (position < limit && isLineEnd(buffer.get(position))) {
+            position++;
+        }
+        Arrays.fill(rowLength, -1);
+        int used = 0;
+        for (int line = 0; line < verticesPerGraph; line++) {
+            skipSpaces();
+            if (position >= limit || isLineEnd(buffer.get(position))) {
+                return null;
+            }
+            int vertex = parseVertex();
+            if (rowLength[vertex] != -1) {
+                throw new IllegalArgumentException("Vertex " + (vertex + 1) + " is listed twice");
+            }
+            rowStart[vertex] = used;
+            skipSpaces();
+            while (position < limit && buffer.get(position) == ',') {
+                position++;
+                skipSpaces();
+                if (used == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, used * 2);
+                }
+                scratch[used++] = parseVertex();
+                skipSpaces();
+            }
+            rowLength[vertex] = used - rowStart[vertex];
+            skipLine();
+        }
+        int[] offsets = new int[verticesPerGraph + 1];
+        int[] targets = new int[used];
+        for (int v = 0; v < verticesPerGraph; v++) {
+            System.arraycopy(scratch, rowStart[v], targets, offsets[v], rowLength[v]);
+            offsets[v + 1] = offsets[v] + rowLength[v];
+        }
+        return new CsrGraph(offsets, targets);
+    }
+
+    /**
+     * Parses a vertex label and returns its zero-based index.
+     */
+    private int parseVertex() {
+        int start = position;
+        int label = 0;
+        byte b;
+        while (position < limit && (b = buffer.get(position)) >= '0' && b <= '9') {
+            label = label * 10 + (b - '0');
+            if (label > verticesPerGraph) {
+                break;
+            }
+            position++;
+        }
+        if (position == start || label < 1 || label > verticesPerGraph) {
+            int end = start;
+            while (end < limit && buffer.get(end) != ',' && !isLineEnd(buffer.get(end))) {
+                end++;
+            }
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            String text = new String(bytes, StandardCharsets.US_ASCII);
+            if (position == start) {
+                throw new NumberFormatException("Malformed vertex: " + text);
+            }
+            throw new IllegalArgumentException("Vertex " + text + " is outside 1 to " + verticesPerGraph);
+        }
+        return label - 1;
+    }
+
+    private void skipSpaces() {
+        while (position < limit && (buffer.get(position) == ' ' || buffer.get(position) == '\t')) {
+            position++;
+        }
+    }
+
+    /**
+     * Skips the rest of the line, including its line break.
+     */
+    private void skipLine() {
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        position++;
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+}
@@ -0,0 +1,25 @@
+package Input;
+
+/**
+ * Reads the records of an input source one at a time, e.g. a parser over a slice of a text file or a reader over a
+ * range of a binary file. A reader is used by one thread.
+ *
+ * @param <T> the type of the records.
+ */
+public interface RecordReader<T> {
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record, or null if there are no more records.
+     */
+    T next();
+
+    /**
+     * @return the time, as {@link System#nanoTime}, at which the record last returned by {@link #next} became
+     *         available to the reader, or -1 if the reader's input is complete from the start.
+     */
+    default long getArrivalNanos() {
+        return -1;
+    }
+}
@@ -0,0 +1,300 @@
+package Input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Follows a text input file that is appended to while it is read, returning each record once it is complete.
+ * A record is complete once the blank line after it has been written, so a record that is still being written is never
+ * parsed. Newly completed records are copied into a buffer with positional reads and handed to a parser, e.g.
+ * {@code b -> new CoordinatesParser(b, 100)}. The buffer is reused for the next records once the parser returns null,
+ * so records must not keep references to it. Parsing a copy means a file truncated in place while it is being parsed
+ * cannot fault the reader, as a mapping of it would.
+ * The file is polled: right after new records were found it is checked again after the minimum interval, and every
+ * check that finds nothing doubles the interval up to the maximum, which bounds how late a record is picked up.
+ * A file that shrinks is read again from its start. A file that is replaced, e.g. by log rotation, is first read up
+ * to the last record completed in it and then the new file is read from its start; a record left incomplete in the
+ * replaced file is lost. A file that does not exist yet is waited for.
+ * {@link #next} waits until a record is available and returns null only once the reader has been closed or its thread
+ * interrupted, so a producer over a tailing reader keeps publishing until it is told to stop.
+ *
+ * @param <T> the type of the records.
+ */
+public class TailingReader<T> implements RecordReader<T>, Closeable {
+    private static final int SCAN_SIZE = 4096;
+    private static final int READ_SIZE = 1 << 20;
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private final Path file;
+    private final Function<ByteBuffer, RecordReader<T>> parsers;
+    private final long minPollNanos;
+    private final long maxPollNanos;
+    private final Object monitor = new Object();
+    private final ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+    private ByteBuffer chunk;
+    private volatile boolean closed = false;
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+    private long chunkEnd;
+    private RecordReader<T> parser;
+    private long chunkArrivalNanos;
+    private long arrivalNanos = -1;
+    private volatile long readPosition;
+
+    /**
+     * Follows a file from its start, polling it every 10ms to 1s.
+     *
+     * @param file    the file to follow.
+     * @param parsers creates a parser over a buffer of complete records.
+     */
+    public TailingReader(Path file, Function<ByteBuffer, RecordReader<T>> parsers) {
+        this(file, 0, parsers, Duration.ofMillis(10), Duration.ofSeconds(1));
+    }
+
+    /**
+     * Follows a file from the given offset, e.g. the {@link #getPosition} saved by an earlier run.
+     *
+     * @param file        the file to follow.
+     * @param position    the offset of the first record to read.
+     * @param parsers     creates a parser over a buffer of complete records.
+     * @param minPollTime how long to wait before checking the file again after records were found.
+     * @param maxPollTime the longest wait between checks of a file that is not growing.
+     */
+    public TailingReader(Path file, long position, Function<ByteBuffer, RecordReader<T>> parsers,
+            Duration minPollTime, Duration maxPollTime) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Position must not be negative: " + position);
+        }
+        if (minPollTime.isNegative() || minPollTime.isZero() || maxPollTime.compareTo(minPollTime) < 0) {
+            throw new IllegalArgumentException("Poll times must be positive, with the maximum at least the minimum");
+        }
+        this.file = file;
+        this.parsers = parsers;
+        this.position = position;
+        this.chunkEnd = position;
+        this.readPosition = position;
+        this.minPollNanos = minPollTime.toNanos();
+        this.maxPollNanos = maxPollTime.toNanos();
+    }
+
+    /**
+     * Returns the next complete record, waiting for one to be appended if necessary.
+     * After the reader is closed the records already read are still returned, and then null. A thread interrupted while
+     * waiting closes the reader and returns null with its interrupt status set.
+     *
+     * @return the record, or null once the reader has been closed.
+     * @throws UncheckedIOException if the file cannot be read.
+     */
+    @Override
+    public T next() {
+        long pollNanos = minPollNanos;
+        while (true) {
+            if (parser != null) {
+                T record = parser.next();
+                if (record != null) {
+                    arrivalNanos = chunkArrivalNanos;
+                    return record;
+                }
+                parser = null;
+                readPosition = chunkEnd;
+            }
+            try {
+                if (closed) {
+                    if (channel != null) {
+                        channel.close();
+                        channel = null;
+                    }
+                    return null;
+                }
+                if (readChunk()) {
+                    pollNanos = minPollNanos;
+                    continue;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            await(pollNanos);
+            pollNanos = Math.min(maxPollNanos, pollNanos * 2);
+        }
+    }
+
+    /**
+     * Reads the records completed since the last check, up to about {@link #READ_SIZE} bytes of them unless a single
+     * record is larger, into the chunk buffer and creates a parser over them.
+     *
+     * @return false if no record has been completed.
+     */
+    private boolean readChunk() throws IOException {
+        if (!openIfReplaced()) {
+            return false;
+        }
+        long size = channel.size();
+        if (size < position) {
+            rewind();
+            size = channel.size();
+        }
+        long window = READ_SIZE;
+        long limit = Math.min(size, position + window);
+        long end = lastRecordEnd(position, limit);
+        while (end <= position && limit < size) {
+            if (window >= MAX_CHUNK_SIZE) {
+                throw new IOException("Record at offset " + position + " is larger than " + MAX_CHUNK_SIZE
+                        + " bytes");
+            }
+            window *= 2;
+            limit = Math.min(size, position + window);
+            end = lastRecordEnd(position, limit);
+        }
+        if (end <= position) {
+            return false;
+        }
+        int length = (int) (end - position);
+        if (chunk == null || chunk.capacity() < length) {
+            chunk = ByteBuffer.allocateDirect(Math.max(length, READ_SIZE));
+        }
+        chunk.clear().limit(length);
+        while (chunk.hasRemaining()) {
+            // The file was truncated since it was scanned; the next check reads it again from its start.
+            if (channel.read(chunk, position + chunk.position()) < 0) {
+                return false;
+            }
+        }
+        chunkArrivalNanos = System.nanoTime();
+        parser = parsers.apply(chunk.flip());
+        position = end;
+        chunkEnd = end;
+        return true;
+    }
+
+    /**
+     * Opens the file if it is not open yet. Once the path names another file and every record completed in the old
+     * one has been read, opens the new file from its start.
+     *
+     * @return false if the file does not exist.
+     */
+    private boolean openIfReplaced() throws IOException {
+        Object key;
+        try {
+            key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return channel != null;
+        }
+        if (channel != null && (key == null || Objects.equals(key, fileKey))) {
+            return true;
+        }
+        if (channel != null) {
+            if (lastRecordEnd(position, Math.min(channel.size(), position + MAX_CHUNK_SIZE)) > position) {
+                return true;
+            }
+            channel.close();
+            channel = null;
+            rewind();
+        }
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            channel = null;
+            return false;
+        }
+        fileKey = key;
+        return true;
+    }
+
+    private void rewind() {
+        position = 0;
+        chunkEnd = 0;
+        readPosition = 0;
+    }
+
+    /**
+     * Finds the end of the last blank line between the offsets, scanning backwards.
+     *
+     * @return the offset just after the blank line, or start if there is none.
+     */
+    private long lastRecordEnd(long start, long end) throws IOException {
+        long to = end;
+        byte next = 0;
+        while (to > start) {
+            long from = Math.max(start, to - SCAN_SIZE);
+            scan.clear().limit((int) (to - from));
+            while (scan.hasRemaining()) {
+                if (channel.read(scan, from + scan.position()) < 0) {
+                    return start;
+                }
+            }
+            for (int i = scan.position() - 1; i >= 0; i--) {
+                byte current = scan.get(i);
+                if (current == '\n' && next == '\n') {
+                    return from + i + 2;
+                }
+                next = current;
+            }
+            to = from;
+        }
+        return start;
+    }
+
+    /**
+     * Waits before the next check of the file. An interrupt closes the reader and is kept on the thread for the
+     * caller to see.
+     */
+    private void await(long nanos) {
+        synchronized (monitor) {
+            if (closed) {
+                return;
+            }
+            try {
+                monitor.wait(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            } catch (InterruptedException e) {
+                closed = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns when the record last returned by {@link #next} was found complete in the file. Records found by the same
+     * check share the time. Latency measured from it includes the polling delay but not the time spent writing the
+     * file.
+     *
+     * @return the arrival time as {@link System#nanoTime}, or -1 before the first record.
+     */
+    @Override
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
+    /**
+     * Returns the offset up to which every record has been returned. A reader created at this offset after a restart
+     * continues without skipping records, though it may return again some records of the last chunk being read.
+     *
+     * @return the offset of the first record not yet fully read.
+     */
+    public long getPosition() {
+        return readPosition;
+    }
+
+    /**
+     * Stops following the file. A thread waiting in {@link #next} returns the records already found and then null,
+     * closing the file.
+     */
+    @Override
+    public void close() {
+        synchronized (monitor) {
+            closed = true;
+            monitor.notifyAll();
+        }
+    }
+}
@@ -10,7 +10,8 @@ public class Main {
 
     public static void main(String[] args) throws IOException, InterruptedException {
         int numProducers = 2;
-        int numConsumers = 1;
+        int minConsumers = 1;
+        int maxConsumers = Runtime.getRuntime().availableProcessors();
 
         // Setup files for coordinates 
         File coordsInputFile = new File(INPUT_COORDINATES_TXT);
@@ -20,9 +21,28 @@ public class Main {
         File graphInputFile = new File(INPUT_GRAPH_TXT);
         File graphOutputFile = new File(OUTPUT_GRAPH_TXT);
 
-    
-        PubSubController.startCoordinatesPubSub(coordsInputFile, coordsOutputFile, numProducers, numConsumers);
-        PubSubController.startGraphPubSub(graphInputFile, graphOutputFile, numProducers, numConsumers);
+        if (args.length > 0 && args[0].equals("--follow")) {
+            // Followed inputs never end on their own, so both run side by side until the process is stopped, and
+            // each finishes processing what it has read before the JVM exits.
+            Thread graphs = new Thread(() -> {
+                try {
+                    PubSubController.startGraphPubSub(graphInputFile, graphOutputFile, 1, minConsumers,
+                            maxConsumers, true);
+                } catch (IOException | InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }, "graphs");
+            graphs.start();
+            PubSubController.startCoordinatesPubSub(coordsInputFile, coordsOutputFile, 1, minConsumers,
+                    maxConsumers, true);
+            graphs.join();
+            return;
+        }
+
+        PubSubController.startCoordinatesPubSub(coordsInputFile, coordsOutputFile, numProducers, minConsumers,
+                maxConsumers);
+        PubSubController.startGraphPubSub(graphInputFile, graphOutputFile, numProducers, minConsumers,
+                maxConsumers);
         
         System.exit(0);
     }
@@ -2,17 +2,39 @@ package Model.Task;
 
 import Model.Point;
 
+import java.nio.DoubleBuffer;
+
 /**
- * Represents a task that involves coordinates.
+ * Represents a task that involves coordinates: a point and the points it is compared to.
+ * All coordinates are kept in one primitive buffer, x and y interleaved with the task's own point first, so a task
+ * costs the same few allocations however many points it holds. The buffer is either a heap array or a view of a
+ * memory-mapped binary input file, in which case the coordinates are never copied onto the heap.
  */
 public class CoordinateTask {
-    public Point point;
-    public Point[] points;
+    private final DoubleBuffer coordinates;
+    private long arrivalNanos = -1;
+
+    /**
+     * Constructor for CoordinateTask over interleaved coordinates.
+     *
+     * @param coordinates the x and y of the task's point, followed by the x and y of each related point.
+     */
+    public CoordinateTask(double[] coordinates) {
+        this(DoubleBuffer.wrap(coordinates));
+    }
 
     /**
-     * Default constructor for CoordinateTask.
+     * Constructor for CoordinateTask over the remaining interleaved coordinates of a buffer, which are used as they
+     * are and not copied.
+     *
+     * @param coordinates the x and y of the task's point, followed by the x and y of each related point.
      */
-    public CoordinateTask() {}
+    public CoordinateTask(DoubleBuffer coordinates) {
+        if (coordinates.remaining() < 2 || coordinates.remaining() % 2 != 0) {
+            throw new IllegalArgumentException("Coordinates must hold x, y pairs: " + coordinates.remaining());
+        }
+        this.coordinates = coordinates.slice();
+    }
 
     /**
      * Constructor for CoordinateTask with specified point and points array.
@@ -21,7 +43,86 @@ public class CoordinateTask {
      * @param points An array of points related to the task.
      */
     public CoordinateTask(Point point, Point[] points) {
-        this.point = point;
-        this.points = points;
+        double[] coordinates = new double[2 * (points.length + 1)];
+        coordinates[0] = point.getX();
+        coordinates[1] = point.getY();
+        for (int i = 0; i < points.length; i++) {
+            coordinates[2 * i + 2] = points[i].getX();
+            coordinates[2 * i + 3] = points[i].getY();
+        }
+        this.coordinates = DoubleBuffer.wrap(coordinates);
+    }
+
+    public double getX() {
+        return coordinates.get(0);
+    }
+
+    public double getY() {
+        return coordinates.get(1);
+    }
+
+    /**
+     * @return the number of points related to the task.
+     */
+    public int getPointCount() {
+        return coordinates.limit() / 2 - 1;
+    }
+
+    public double getPointX(int index) {
+        return coordinates.get(2 * index + 2);
+    }
+
+    public double getPointY(int index) {
+        return coordinates.get(2 * index + 3);
+    }
+
+    /**
+     * @return the main point of the task.
+     */
+    public Point getPoint() {
+        return new Point(getX(), getY());
+    }
+
+    /**
+     * @param index the index of a related point.
+     * @return the related point.
+     */
+    public Point getPoint(int index) {
+        return new Point(getPointX(index), getPointY(index));
+    }
+
+    /**
+     * Calculates the distance between the task's point and a related point, as {@link Point#getDistance} would.
+     *
+     * @param index the index of the related point.
+     * @return the distance between the two points.
+     */
+    public double getDistance(int index) {
+        return Math.sqrt(Math.pow(getX() - getPointX(index), 2) + Math.pow(getY() - getPointY(index), 2));
+    }
+
+    /**
+     * @return a read-only view of the interleaved coordinates backing the task, not a copy.
+     */
+    public DoubleBuffer getCoordinates() {
+        return coordinates.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the time, as {@link System#nanoTime}, at which the task arrived in the input, or -1 if it was not
+     *         stamped.
+     */
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
+    /**
+     * Stamps the task with the time its input arrived, e.g. when a {@link Input.TailingReader} found it complete, so
+     * its latency can be measured once it has been processed. The stamp is not part of the task's value.
+     *
+     * @param arrivalNanos the arrival time as {@link System#nanoTime}.
+     */
+    public void setArrivalNanos(long arrivalNanos) {
+        this.arrivalNanos = arrivalNanos;
     }
 }
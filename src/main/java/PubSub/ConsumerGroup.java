@@ -0,0 +1,223 @@
+package PubSub;
+
+import DataStructures.Queue.PartitionedQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The subscribers of a partitioned topic. Partitions are spread over the members, and reassigned whenever a member
+ * joins or leaves.
+ * A member only takes messages from a partition while holding that partition's lock and keeps it until it has
+ * processed them, so two members never process the same partition at once, even while a rebalance is handing the
+ * partition over. Messages with the same key are therefore processed in publish order.
+ *
+ * @param <T> the type of the messages.
+ */
+class ConsumerGroup<T> {
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long HANDOVER_PARK_NANOS = 50_000;
+
+    private final PartitionedQueue<T> queue;
+    private final ReentrantLock[] partitionLocks;
+    private final ArrayList<Member> members = new ArrayList<>();
+
+    ConsumerGroup(PartitionedQueue<T> queue) {
+        this.queue = queue;
+        this.partitionLocks = new ReentrantLock[queue.getPartitionCount()];
+        for (int i = 0; i < partitionLocks.length; i++) {
+            partitionLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Adds a member to the group and rebalances the partitions.
+     *
+     * @return the new member.
+     */
+    synchronized Member join() {
+        Member member = new Member();
+        members.add(member);
+        rebalance();
+        return member;
+    }
+
+    /**
+     * Removes a member from the group and hands its partitions to the remaining members.
+     */
+    synchronized void leave(Member member) {
+        if (members.remove(member)) {
+            rebalance();
+        }
+    }
+
+    /**
+     * Assigns partition p to member p % n, so every partition has exactly one owner and ownership is spread evenly.
+     * Must hold the group's monitor.
+     */
+    private void rebalance() {
+        int n = members.size();
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int p = i; p < partitionLocks.length; p += n) {
+                count++;
+            }
+            int[] owned = new int[count];
+            for (int p = i, j = 0; p < partitionLocks.length; p += n, j++) {
+                owned[j] = p;
+            }
+            Member member = members.get(i);
+            member.owned = owned;
+            Runnable action = member.onRebalance;
+            if (action != null) {
+                action.run();
+            }
+        }
+        queue.signalAvailable();
+    }
+
+    /**
+     * Runs a member's consume loop until the topic has stopped and the member's partitions are drained, or the
+     * subscription is cancelled. The member leaves the group when the loop exits.
+     *
+     * @param member       the member consuming.
+     * @param subscription the subscription that can cancel the member.
+     * @param maxBatch     the maximum number of messages taken from a partition at once.
+     * @param handler      called with the messages taken from one partition, in order. The list is the member's
+     *                     batch buffer, which is cleared and refilled once the handler returns.
+     */
+    void consume(Member member, Subscription subscription, int maxBatch, Consumer<List<T>> handler) {
+        List<T> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!subscription.isCancelled()) {
+                int[] owned = member.owned;
+                int handled = drainOwned(member, owned, maxBatch, batch, handler);
+                if (handled > 0) {
+                    continue;
+                }
+                if (leaveIfFinished(member)) {
+                    return;
+                }
+                if (handled < 0) {
+                    // The previous owner is still processing a partition it held before the last rebalance.
+                    LockSupport.parkNanos(HANDOVER_PARK_NANOS);
+                } else {
+                    queue.awaitAvailable(owned, IDLE_WAIT_NANOS);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            leave(member);
+        }
+    }
+
+    /**
+     * Runs one pass of a member's consume loop without waiting, for members that must not hold their thread while
+     * their partitions are empty. A partition still held by its previous owner is skipped; the previous owner runs
+     * the member's rebalance action once it lets go. The caller leaves the group once it is done with the member.
+     *
+     * @param member   the member consuming.
+     * @param maxBatch the maximum number of messages taken from a partition at once.
+     * @param batch    the member's batch buffer, which is cleared and refilled once the handler returns.
+     * @param handler  called with the messages taken from one partition, in order.
+     * @return true if messages were handled, so another pass is due.
+     */
+    boolean consumeAvailable(Member member, int maxBatch, List<T> batch, Consumer<List<T>> handler) {
+        return drainOwned(member, member.owned, maxBatch, batch, handler) > 0;
+    }
+
+    /**
+     * Removes the member from the group once the topic has stopped and the partitions it owns are drained.
+     * The check and the removal happen under the group's monitor, so a rebalance cannot hand the member a partition
+     * that still holds messages in between and leave them without an owner.
+     *
+     * @return true if the member left.
+     */
+    boolean leaveIfFinished(Member member) {
+        if (queue.getIsRunning()) {
+            return false;
+        }
+        synchronized (this) {
+            if (!isDrained(member.owned)) {
+                return false;
+            }
+            leave(member);
+            return true;
+        }
+    }
+
+    /**
+     * Takes one batch from every owned partition that has messages and is not held by another member.
+     * If the partitions were reassigned meanwhile, their new owners may have found them locked, so every member is
+     * woken once they are released.
+     *
+     * @return the number of batches handled, or -1 if none was and a partition was held by its previous owner.
+     */
+    private int drainOwned(Member member, int[] owned, int maxBatch, List<T> batch, Consumer<List<T>> handler) {
+        int handled = 0;
+        boolean contended = false;
+        for (int partition : owned) {
+            ReentrantLock lock = partitionLocks[partition];
+            if (!lock.tryLock()) {
+                contended = true;
+                continue;
+            }
+            try {
+                if (queue.getPartition(partition).drainTo(batch, maxBatch) > 0) {
+                    handled++;
+                    handler.accept(batch);
+                }
+            } finally {
+                batch.clear();
+                lock.unlock();
+            }
+        }
+        if (member.owned != owned) {
+            wakeMembers();
+        }
+        return handled == 0 && contended ? -1 : handled;
+    }
+
+    /**
+     * Runs every member's rebalance action and wakes the members waiting on the partitions.
+     */
+    private synchronized void wakeMembers() {
+        for (Member member : members) {
+            Runnable action = member.onRebalance;
+            if (action != null) {
+                action.run();
+            }
+        }
+        queue.signalAvailable();
+    }
+
+    private boolean isDrained(int[] owned) {
+        for (int partition : owned) {
+            if (queue.getPartition(partition).size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A member of the group and the partitions it currently owns.
+     */
+    static class Member {
+        private volatile int[] owned = new int[0];
+        private volatile Runnable onRebalance = null;
+
+        /**
+         * Sets an action run whenever the member's partitions are reassigned, for members that do not wait on the
+         * partitions.
+         */
+        void onRebalance(Runnable onRebalance) {
+            this.onRebalance = onRebalance;
+        }
+    }
+}
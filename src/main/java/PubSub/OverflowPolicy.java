@@ -0,0 +1,17 @@
+package PubSub;
+
+/**
+ * What a topic does with a published message when its queue is full.
+ */
+public enum OverflowPolicy {
+    /** Block the publisher until a subscriber frees space. */
+    BLOCK,
+    /** Discard the message being published. */
+    DROP_NEWEST,
+    /** Discard the oldest queued message to make room for the one being published. */
+    DROP_OLDEST,
+    /** Hand the message being published to the topic's rejection handler. */
+    REJECT,
+    /** Write the message to the topic's spill directory and read it back once subscribers catch up. */
+    SPILL
+}
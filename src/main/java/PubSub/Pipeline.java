@@ -0,0 +1,218 @@
+package PubSub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Builds a chain of processing steps on top of a source topic, such as parse, validate, enrich and write.
+ * Every step runs with a parallelism, the number of subscriber threads executing it. Adjacent steps with the same
+ * parallelism are fused: they run as one composed function on the same thread, and messages pass between them as
+ * plain method calls. Only where the parallelism changes does the pipeline insert an intermediate topic, so a
+ * message is queued once per change in parallelism rather than once per step.
+ * Nothing runs until {@link #sink} is called.
+ *
+ * @param <T> the type of the messages leaving the last step added so far.
+ */
+@SuppressWarnings("unchecked")
+public class Pipeline<T> {
+    private static final int BATCH_SIZE = 32;
+    private static final AtomicInteger PIPELINE_IDS = new AtomicInteger();
+
+    private final PubSub pubSub;
+    private final Topic<?> source;
+    private final List<Stage> stages = new ArrayList<>();
+
+    private Pipeline(PubSub pubSub, Topic<?> source) {
+        this.pubSub = pubSub;
+        this.source = source;
+        this.stages.add(new Stage(1));
+    }
+
+    /**
+     * Starts a pipeline reading the messages of the given topic.
+     * The topic's publishers are registered and stopped as usual; the pipeline completes after they have all
+     * stopped and every message has reached the sink.
+     *
+     * @param <T>    the type of the source messages.
+     * @param pubSub the PubSub system intermediate topics are created in.
+     * @param topic  the source topic.
+     * @return a pipeline with no steps yet.
+     */
+    public static <T> Pipeline<T> source(PubSub pubSub, Topic<T> topic) {
+        return new Pipeline<>(pubSub, topic);
+    }
+
+    /**
+     * Transforms every message, running with the same parallelism as the previous step.
+     *
+     * @param <R>    the type of the transformed messages.
+     * @param mapper the transformation.
+     * @return this pipeline.
+     */
+    public <R> Pipeline<R> map(Function<? super T, ? extends R> mapper) {
+        return map(mapper, current().parallelism);
+    }
+
+    /**
+     * Transforms every message on the given number of threads.
+     *
+     * @param <R>         the type of the transformed messages.
+     * @param mapper      the transformation.
+     * @param parallelism the number of threads running the step.
+     * @return this pipeline.
+     */
+    public <R> Pipeline<R> map(Function<? super T, ? extends R> mapper, int parallelism) {
+        stageWith(parallelism).operators.add(downstream -> value -> downstream.accept(mapper.apply((T) value)));
+        return (Pipeline<R>) this;
+    }
+
+    /**
+     * Drops the messages that do not match the predicate, running with the same parallelism as the previous step.
+     *
+     * @param predicate the test messages must pass.
+     * @return this pipeline.
+     */
+    public Pipeline<T> filter(Predicate<? super T> predicate) {
+        return filter(predicate, current().parallelism);
+    }
+
+    /**
+     * Drops the messages that do not match the predicate, testing them on the given number of threads.
+     *
+     * @param predicate   the test messages must pass.
+     * @param parallelism the number of threads running the step.
+     * @return this pipeline.
+     */
+    public Pipeline<T> filter(Predicate<? super T> predicate, int parallelism) {
+        stageWith(parallelism).operators.add(downstream -> value -> {
+            if (predicate.test((T) value)) {
+                downstream.accept(value);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Ends the pipeline with the given consumer, running with the same parallelism as the previous step, and starts it.
+     *
+     * @param sink the consumer of the pipeline's output.
+     * @return a future completed once every message has reached the sink, or completed exceptionally if a step failed.
+     */
+    public CompletableFuture<Void> sink(Consumer<? super T> sink) {
+        return sink(sink, current().parallelism);
+    }
+
+    /**
+     * Ends the pipeline with the given consumer, running on the given number of threads, and starts it.
+     *
+     * @param sink        the consumer of the pipeline's output.
+     * @param parallelism the number of threads running the sink.
+     * @return a future completed once every message has reached the sink, or completed exceptionally if a step failed.
+     */
+    public CompletableFuture<Void> sink(Consumer<? super T> sink, int parallelism) {
+        stageWith(parallelism).operators.add(downstream -> value -> sink.accept((T) value));
+        return start();
+    }
+
+    private Stage current() {
+        return stages.get(stages.size() - 1);
+    }
+
+    /**
+     * Returns the stage a step with the given parallelism fuses into, starting a new stage if it differs from the
+     * current one.
+     */
+    private Stage stageWith(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        Stage stage = current();
+        if (stage.parallelism == parallelism) {
+            return stage;
+        }
+        if (stage.operators.isEmpty()) {
+            stage.parallelism = parallelism;
+            return stage;
+        }
+        Stage next = new Stage(parallelism);
+        stages.add(next);
+        return next;
+    }
+
+    /**
+     * Creates the intermediate topics and subscribes each stage's fused function to its input topic.
+     * Intermediate topics are named {@code <source>-pipeline-<id>-stage-<n>}, with an id unique to the pipeline, so
+     * several pipelines can read the same source topic. Each intermediate topic has the pipeline as its single
+     * registered publisher, stopped once the stage feeding it has completed, or as soon as the stage reading it fails
+     * so the feeding stage cannot block on it.
+     */
+    private CompletableFuture<Void> start() {
+        Topic<Object> input = (Topic<Object>) source;
+        List<CompletableFuture<Void>> completions = new ArrayList<>();
+        String stagePrefix = source.getName() + "-pipeline-" + PIPELINE_IDS.incrementAndGet() + "-stage-";
+        for (int i = 0; i < stages.size(); i++) {
+            Stage stage = stages.get(i);
+            boolean last = i == stages.size() - 1;
+            Topic<Object> output = null;
+            Consumer<Object> chain = value -> {
+            };
+            if (!last) {
+                int downstream = stages.get(i + 1).parallelism;
+                // Room for a full batch per thread on either side keeps batched hand-offs from stalling.
+                output = pubSub.createTopic(stagePrefix + (i + 1), Object.class,
+                        new TopicConfig().expect(stage.parallelism, downstream)
+                                .capacity(BATCH_SIZE * Math.max(stage.parallelism, downstream)));
+                output.registerPublisher();
+                chain = output::publish;
+            }
+            for (int j = stage.operators.size() - 1; j >= 0; j--) {
+                chain = stage.operators.get(j).apply(chain);
+            }
+            Consumer<Object> fused = chain;
+            for (int j = 0; j < stage.parallelism; j++) {
+                input.subscribeBatch(batch -> {
+                    for (Object value : batch) {
+                        fused.accept(value);
+                    }
+                }, BATCH_SIZE, Duration.ZERO);
+            }
+            completions.add(input.awaitCompletion());
+            if (!last) {
+                Topic<Object> stageOutput = output;
+                AtomicBoolean stopped = new AtomicBoolean();
+                Runnable stopOutput = () -> {
+                    if (stopped.compareAndSet(false, true)) {
+                        stageOutput.stopPublishing();
+                    }
+                };
+                input.awaitCompletion().whenComplete((v, e) -> stopOutput.run());
+                output.awaitCompletion().whenComplete((v, e) -> {
+                    if (e != null) {
+                        stopOutput.run();
+                    }
+                });
+                input = output;
+            }
+        }
+        return CompletableFuture.allOf(completions.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * A run of fused steps sharing a parallelism. Each operator wraps the consumer of the step after it.
+     */
+    private static class Stage {
+        private int parallelism;
+        private final List<Function<Consumer<Object>, Consumer<Object>>> operators = new ArrayList<>();
+
+        Stage(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+}
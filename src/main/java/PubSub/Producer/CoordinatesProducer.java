@@ -1,79 +1,57 @@
 package PubSub.Producer;
 
-import java.io.FileReader;
-import java.util.Scanner;
-
-import Model.Point;
+import Input.RecordReader;
 import Model.Task.CoordinateTask;
-import PubSub.PubSub;
+import PubSub.Topic;
 
 /**
  * The CoordinatesProducer class represents a producer that reads coordinates
  * from a file and publishes them using the PubSub mechanism.
+ * Tasks come from a record reader, either parsed from a text file or viewed in place in a binary one.
+ * Over a {@link Input.TailingReader} the producer follows a file that is still being appended to, publishing records as
+ * they are completed, until the reader is closed. Each record is stamped with its arrival time, so the topic's metrics
+ * record its latency from arrival until a subscriber has processed it.
  */
 public class CoordinatesProducer extends Thread {
-    private final PubSub pubSub;
-    private final Scanner scanner;
-    private final int NUM_COORDS;
-    private final String topicName;
+    private final Topic<CoordinateTask> topic;
+    private final RecordReader<CoordinateTask> reader;
 
     /**
      * Constructs a new CoordinatesProducer with the specified parameters.
      *
-     * @param fileReader the FileReader object used to read the coordinates from a
-     *                   file.
-     * @param pubSub      the PubSub object used to publish tasks.
-     * @param NUM_COORDS the number of coordinates to be produced.
+     * @param topic  the topic the tasks are published to.
+     * @param reader the reader of the tasks, e.g. of one slice of the input file.
      */
-    public CoordinatesProducer(PubSub pubSub, String topicName, FileReader fileReader, int NUM_COORDS) {
-        this.pubSub = pubSub;
-        this.scanner = new Scanner(fileReader);
-        this.NUM_COORDS = NUM_COORDS;
-        this.topicName = topicName;
+    public CoordinatesProducer(Topic<CoordinateTask> topic, RecordReader<CoordinateTask> reader) {
+        this.topic = topic;
+        this.reader = reader;
+        topic.registerPublisher();
+        topic.trackArrivals(CoordinateTask::getArrivalNanos);
     }
 
     /**
      * Executes the producer thread, continuously reading tasks and publishing them to the specified topic.
-     * If there are no more tasks to read, the producer stops publishing and shuts down.
+     * If there are no more tasks to read, the producer stops publishing and shuts down. If reading fails, the
+     * producer still stops publishing and completes the topic exceptionally with the error.
      */
     @Override
     public void run() {
-        while (true) {
-            CoordinateTask newTask = readTask();
-            if (newTask == null) {
-                pubSub.stopPublishing(topicName);
-                System.out.println("No more points to read, producer is shutting down");
-                return;
-            }
-            pubSub.publish(topicName, newTask);
-        }
-    }
-
-    /**
-     * Processes coordinates from the input file.
-     * 
-     * @return the Coordinate task read from the file, or null if there are no more.
-     */
-    private CoordinateTask readTask() {
-        Point[] points = new Point[100];
-        CoordinateTask res = new CoordinateTask();
-        for (int i = 0; i < NUM_COORDS + 1; i++) {
-            if (!scanner.hasNext()) {
-                return null;
-            }
-            String[] line = scanner.nextLine().split(",");
-            if (line[0].isEmpty() || line[1].isEmpty()) {
-                return null;
-            }
-            Point point = new Point(Double.parseDouble(line[0]), Double.parseDouble(line[1]));
-            if (i == 0) {
-                res.point = point;
-            } else {
-                points[i - 1] = point;
+        Throwable error = null;
+        try {
+            while (true) {
+                CoordinateTask newTask = reader.next();
+                if (newTask == null) {
+                    System.out.println("No more points to read, producer is shutting down");
+                    return;
+                }
+                newTask.setArrivalNanos(reader.getArrivalNanos());
+                topic.publish(newTask);
             }
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            topic.stopPublishing(error);
         }
-        scanner.nextLine();
-        res.points = points;
-        return res;
     }
 }
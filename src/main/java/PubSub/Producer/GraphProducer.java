@@ -1,78 +1,58 @@
 package PubSub.Producer;
 
-import PubSub.PubSub;
-
-import java.io.FileReader;
-import java.util.*;
-import java.util.stream.Collectors;
+import DataStructures.Graph.CsrGraph;
+import Input.RecordReader;
+import PubSub.Topic;
 
 /**
  * The GraphProducer class represents a producer for generating graphs and publishing them to
  * a PubSub system.
+ * Graphs come from a record reader, either parsed from a text file or viewed in place in a binary one.
+ * Over a {@link Input.TailingReader} the producer follows a file that is still being appended to, publishing records as
+ * they are completed, until the reader is closed. Each record is stamped with its arrival time, so the topic's metrics
+ * record its latency from arrival until a subscriber has processed it.
  */
 public class GraphProducer extends Thread {
-    private final Scanner scanner;
-    private final PubSub pubSub;
-    private final int GRAPH_SIZE;
-    private final String topicName;
+    private final RecordReader<CsrGraph> reader;
+    private final Topic<CsrGraph> topic;
 
     /**
      * Constructs a new GraphProducer object.
      * 
-     * @param pubSub     the PubSub system to publish the graphs to.
-     * @param topicName  the name of the topic to publish the graphs to.
-     * @param fileReader the file reader to read the graph data from.
-     * @param GRAPH_SIZE the size of the graphs to be generated.
+     * @param topic  the topic to publish the graphs to.
+     * @param reader the reader of the graphs, e.g. of one slice of the input file.
      */
-    public GraphProducer(PubSub pubSub,
-            String topicName,
-            FileReader fileReader,
-            int GRAPH_SIZE) {
-        this.pubSub = pubSub;
-        this.scanner = new Scanner(fileReader);
-        this.GRAPH_SIZE = GRAPH_SIZE;
-        this.topicName = topicName;
+    public GraphProducer(Topic<CsrGraph> topic, RecordReader<CsrGraph> reader) {
+        this.topic = topic;
+        this.reader = reader;
+        topic.registerPublisher();
+        topic.trackArrivals(CsrGraph::getArrivalNanos);
     }
 
     /**
      * Executes the producer thread.
      * Reads tasks from a source and publishes them to a topic using a PubSub system.
-     * If there are no more tasks to read, the producer stops publishing and shuts down.
+     * If there are no more tasks to read, the producer stops publishing and shuts down. If reading fails, the
+     * producer still stops publishing and completes the topic exceptionally with the error.
      */
     @Override
     public void run() {
-        while (true) {
-            HashMap<Integer, ArrayList<Integer>> newTask = readTask();
-            if (newTask == null) {
-                pubSub.stopPublishing(topicName);
-                System.out.println("No more points to read, producer is shutting down");
-                return;
-            }
-            pubSub.publish(topicName, newTask);
-        }
-    }
-
-    /**
-     * Reads a task from the input and returns a graph representation.
-     * 
-     * @return the graph representation as a HashMap<Integer, ArrayList<Integer>>
-     *         object,
-     *         or null if there are no more tasks or the task is invalid.
-     */
-    private HashMap<Integer, ArrayList<Integer>> readTask() {
-        HashMap<Integer, ArrayList<Integer>> graph = new HashMap<>();
-        for (int i = 0; i < GRAPH_SIZE; i++) {
-            if (!scanner.hasNext()) {
-                return null;
-            }
-            ArrayList<Integer> line = Arrays.stream(scanner.nextLine().split(", ")).map(Integer::parseInt)
-                    .collect(Collectors.toCollection(ArrayList::new));
-            if (line.isEmpty()) {
-                return null;
+        Throwable error = null;
+        try {
+            while (true) {
+                CsrGraph newTask = reader.next();
+                if (newTask == null) {
+                    System.out.println("No more points to read, producer is shutting down");
+                    return;
+                }
+                newTask.setArrivalNanos(reader.getArrivalNanos());
+                topic.publish(newTask);
             }
-            graph.put(line.get(0), new ArrayList<Integer>(line.subList(1, line.size())));
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            topic.stopPublishing(error);
         }
-        scanner.nextLine();
-        return graph;
     }
 }
@@ -1,58 +1,242 @@
 package PubSub;
 
-import DataStructures.Queue.BlockingQueue;
+import Codec.Codec;
+import Codec.CodecRegistry;
+import DataStructures.Queue.QueueType;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 @SuppressWarnings("unchecked")
 /**
  * The PubSub class represents a publish-subscribe messaging pattern implementation.
  * It allows publishers to publish messages to specific topics, and subscribers to subscribe to those topics and receive the messages.
+ * Topics are kept in a concurrent registry, so topics can be created and looked up from any thread.
+ * Hot paths should hold the typed {@link Topic} handle returned by {@link #topic} instead of publishing by name.
  */
 public class PubSub {
-    private final HashMap<String, BlockingQueue<Object>> topics;
+    private final ConcurrentHashMap<String, Topic<?>> topics;
+    private final TopicConfig defaultConfig;
+    private final CodecRegistry codecs;
 
     /**
-     * Constructs a new PubSub object.
-     * Initializes the topics HashMap.
+     * Constructs a new PubSub object whose topics are backed by array queues.
+     * Initializes the topics registry.
      */
     PubSub() {
-        this.topics = new HashMap<>();
+        this(QueueType.ARRAY);
+    }
+
+    /**
+     * Constructs a new PubSub object.
+     * Initializes the topics registry and a codec registry holding the codecs of the project's tasks.
+     *
+     * @param queueType the queue implementation topics are backed by when they are not created explicitly.
+     */
+    PubSub(QueueType queueType) {
+        this.topics = new ConcurrentHashMap<>();
+        this.defaultConfig = new TopicConfig().queueType(queueType);
+        this.codecs = CodecRegistry.withDefaults();
+    }
+
+    /**
+     * Returns the registry of codecs that topics created afterwards use when no codec is set in their config.
+     *
+     * @return the codec registry.
+     */
+    public CodecRegistry getCodecs() {
+        return codecs;
+    }
+
+    private Codec<?> codecFor(Class<?> type, TopicConfig config) {
+        return config.getCodec() != null ? config.getCodec() : codecs.find(type);
+    }
+
+    /**
+     * Creates an untyped topic with the given configuration.
+     * Topics that are published or subscribed to without being created first use this PubSub's default configuration.
+     *
+     * @param topic  The name of the topic.
+     * @param config The configuration of the topic.
+     * @throws IllegalStateException if the topic already exists.
+     */
+    public void createTopic(String topic, TopicConfig config) {
+        createTopic(topic, Object.class, config);
+    }
+
+    /**
+     * Creates a topic carrying messages of the given type and returns its handle.
+     * Generic message types are passed as their raw class, e.g. {@code HashMap.class} for a topic of graphs.
+     *
+     * @param <T>    The type of the messages.
+     * @param topic  The name of the topic.
+     * @param type   The class of the messages.
+     * @param config The configuration of the topic.
+     * @return the topic's handle.
+     * @throws IllegalStateException if the topic already exists.
+     */
+    public <T> Topic<T> createTopic(String topic, Class<? super T> type, TopicConfig config) {
+        Topic<T> created = new Topic<>(topic, type, config, codecFor(type, config));
+        if (topics.putIfAbsent(topic, created) != null) {
+            throw new IllegalStateException("Topic already exists: " + topic);
+        }
+        return created;
+    }
+
+    /**
+     * Returns the handle of a topic carrying messages of the given type, creating it with this PubSub's default
+     * configuration if it does not exist yet.
+     *
+     * @param <T>   The type of the messages.
+     * @param topic The name of the topic.
+     * @param type  The class of the messages.
+     * @return the topic's handle.
+     * @throws IllegalArgumentException if the topic exists with a different message type.
+     */
+    public <T> Topic<T> topic(String topic, Class<? super T> type) {
+        Topic<?> t = topics.computeIfAbsent(topic,
+                x -> new Topic<>(x, type, defaultConfig, codecFor(type, defaultConfig)));
+        if (t.getMessageType() != type) {
+            throw new IllegalArgumentException("Topic " + topic + " carries " + t.getMessageType().getName()
+                    + ", not " + type.getName());
+        }
+        return (Topic<T>) t;
+    }
+
+    private <T> Topic<T> getTopic(String topic) {
+        return (Topic<T>) topics.computeIfAbsent(topic, x -> new Topic<>(x, Object.class, defaultConfig,
+                codecFor(Object.class, defaultConfig)));
     }
 
     /**
      * Publishes a message to the specified topic.
+     * If the topic's queue is full, the message is handled according to the topic's overflow policy.
      * @param topic The topic to publish the message to.
      * @param value The message to be published.
      */
     public void publish(String topic, Object value) {
-        topics.computeIfAbsent(topic, x -> new BlockingQueue<>()).addToQueue(value);
+        getTopic(topic).publish(value);
+    }
+
+    /**
+     * Publishes a keyed message to the specified topic.
+     * On partitioned topics messages with the same key are processed in the order they were published.
+     * @param topic The topic to publish the message to.
+     * @param key   The key choosing the message's partition.
+     * @param value The message to be published.
+     */
+    public void publish(String topic, Object key, Object value) {
+        getTopic(topic).publish(key, value);
+    }
+
+    /**
+     * Publishes a message to the specified topic, waiting up to the given timeout for space in the topic's queue.
+     * @param topic   The topic to publish the message to.
+     * @param value   The message to be published.
+     * @param timeout How long to wait for space.
+     * @param unit    The unit of the timeout.
+     * @return true if the message was published, false if the timeout elapsed or publishing has stopped.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean offer(String topic, Object value, long timeout, TimeUnit unit) throws InterruptedException {
+        return getTopic(topic).offer(value, timeout, unit);
+    }
+
+    /**
+     * Publishes a batch of messages to the specified topic, in order.
+     * The topic's queue is locked and its consumers are woken once per run of messages rather than once per message.
+     * @param topic  The topic to publish the messages to.
+     * @param values The messages to be published.
+     */
+    public void publishBatch(String topic, Collection<?> values) {
+        getTopic(topic).publishBatch(values);
     }
 
     /**
      * Subscribes to a topic and starts a new thread to receive messages from that topic.
+     * Topics backed by an SPSC queue accept a single subscriber.
+     * The thread exits once publishing has stopped and the topic has been drained.
      * @param <T>           The type of the messages.
      * @param topic         The topic to subscribe to.
      * @param subscriber    The consumer function that will be called with each received message.
+     * @return a handle that can cancel the subscriber.
+     */
+    public <T> Subscription subscribe(String topic, Consumer<T> subscriber) {
+        return this.<T>getTopic(topic).subscribe(subscriber);
+    }
+
+    /**
+     * Subscribes to a topic and starts a new thread that receives messages from that topic in batches.
+     * The thread waits for the first message of a batch, takes every other message already queued up to maxBatch,
+     * and then waits up to maxLinger for the batch to fill before handing it to the subscriber.
+     * The list is reused for the subscriber's next batch, see {@link Topic#subscribeBatch(Consumer, int, Duration)}.
+     * The thread exits once publishing has stopped and the topic has been drained.
+     * @param <T>        The type of the messages.
+     * @param topic      The topic to subscribe to.
+     * @param subscriber The consumer function that will be called with each batch of messages.
+     * @param maxBatch   The maximum number of messages in a batch.
+     * @param maxLinger  How long to wait for a partial batch to fill, or zero to deliver whatever is queued.
+     * @return a handle that can cancel the subscriber.
+     */
+    public <T> Subscription subscribeBatch(String topic, Consumer<List<T>> subscriber, int maxBatch,
+            Duration maxLinger) {
+        return this.<T>getTopic(topic).subscribeBatch(subscriber, maxBatch, maxLinger);
+    }
+
+    /**
+     * Subscribes a pool of subscribers to a topic, growing and shrinking it with the topic's load within the policy's
+     * bounds.
+     * @param <T>        The type of the messages.
+     * @param topic      The topic to subscribe to.
+     * @param subscriber The consumer function that will be called with each received message.
+     * @param policy     When to add and retire subscribers.
+     * @return the pool.
      */
-    public <T> void subscribe(String topic, Consumer<T> subscriber) {
-        BlockingQueue<Object> queue = topics.computeIfAbsent(topic, x -> new BlockingQueue<>());
-        new Thread(() -> {
-            while (true) {
-                T task = (T) queue.removeFromQueue();
-                subscriber.accept(task);
-            }
-        }).start();
+    public <T> SubscriberPool subscribe(String topic, Consumer<T> subscriber, ScalingPolicy policy) {
+        return this.<T>getTopic(topic).subscribe(subscriber, policy);
     }
 
     /**
-     * Stops publishing messages to the specified topic.
+     * Subscribes a pool of batch subscribers to a topic, growing and shrinking it with the topic's load within the
+     * policy's bounds.
+     * @param <T>        The type of the messages.
+     * @param topic      The topic to subscribe to.
+     * @param subscriber The consumer function that will be called with each batch of messages.
+     * @param maxBatch   The maximum number of messages in a batch.
+     * @param maxLinger  How long to wait for a partial batch to fill, or zero to deliver whatever is queued.
+     * @param policy     When to add and retire subscribers.
+     * @return the pool.
+     */
+    public <T> SubscriberPool subscribeBatch(String topic, Consumer<List<T>> subscriber, int maxBatch,
+            Duration maxLinger, ScalingPolicy policy) {
+        return this.<T>getTopic(topic).subscribeBatch(subscriber, maxBatch, maxLinger, policy);
+    }
+
+    /**
+     * Registers a publisher on the specified topic.
+     * Once publishers have been registered, the topic only stops after every one of them has called stopPublishing.
+     * Topics backed by an SPSC queue accept a single publisher.
+     *
+     * @param topic The topic the publisher will publish to.
+     */
+    public void registerPublisher(String topic) {
+        getTopic(topic).registerPublisher();
+    }
+
+    /**
+     * Signals that a publisher has finished publishing to the specified topic.
+     * The topic stops when its last registered publisher finishes, or immediately if none were registered.
+     * Its subscribers then drain the messages still queued and exit.
      * 
      * @param topic The topic to stop publishing messages to.
      */
     public void stopPublishing(String topic) {
-        topics.computeIfAbsent(topic, x -> new BlockingQueue<>()).stop();
+        getTopic(topic).stopPublishing();
     }
 
     /**
@@ -62,6 +246,28 @@ public class PubSub {
      * @return true if publishing has stopped for the topic, false otherwise.
      */
     public boolean hasStoppedPublishing(String topic) {
-        return !topics.computeIfAbsent(topic, x -> new BlockingQueue<>()).getIsRunning();
+        return getTopic(topic).hasStoppedPublishing();
+    }
+
+    /**
+     * Returns a future that completes once the specified topic has stopped and every subscriber has processed its
+     * last message and exited.
+     *
+     * @param topic The topic to wait for.
+     * @return a future completed when the topic has been fully processed, or completed exceptionally if a
+     *         subscriber failed.
+     */
+    public CompletableFuture<Void> awaitCompletion(String topic) {
+        return getTopic(topic).awaitCompletion();
+    }
+
+    /**
+     * Returns the live metrics of the specified topic.
+     *
+     * @param topic The topic to read the metrics of.
+     * @return the topic's metrics.
+     */
+    public TopicMetrics getMetrics(String topic) {
+        return getTopic(topic).getMetrics();
     }
 }
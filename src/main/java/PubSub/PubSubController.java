@@ -1,18 +1,31 @@
 package PubSub;
 
+import DataStructures.Graph.CsrGraph;
 import DataStructures.Graph.GraphUtils;
+import Input.BinaryCoordinatesFile;
+import Input.BinaryGraphFile;
+import Input.CoordinatesParser;
+import Input.FileSlice;
+import Input.FileSplitter;
+import Input.GraphParser;
+import Input.RecordReader;
+import Input.TailingReader;
 import PubSub.Producer.GraphProducer;
 import PubSub.Producer.CoordinatesProducer;
 import Model.Task.CoordinateTask;
-import Model.Point;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
 import java.util.StringJoiner;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * The PubSubController class is responsible for coordinating the publishing and
@@ -22,12 +35,12 @@ import java.util.function.Consumer;
  * and graphs.
  */
 public class PubSubController {
-    private static final GraphUtils<Integer> utils = new GraphUtils<>();
     private static final int NUM_COORDS = 100;
     private static final int NUM_GRAPHS = 200;
     private static final boolean POPULATE_COORDS = false;
     private static final boolean CREATE_GRAPHS = false;
     private static final int GRAPH_SIZE = 30;
+    private static final int BATCH_SIZE = 32;
 
     public PubSubController() {
     }
@@ -35,143 +48,280 @@ public class PubSubController {
     /**
      * Starts the graph publishing and subscribing process.
      *
-     * @param inputFile  the input file containing graph data
+     * @param inputFile  the input file containing graph data, as text or in the binary graphs format
      * @param outputFile the output file to write the results
-     * @param numProd    the number of graph producers
-     * @param numCons    the number of graph consumers
+     * @param numProd    the number of graph producers, each reading its own slice of the input
+     * @param minCons    the number of graph consumers to start with
+     * @param maxCons    the number of graph consumers to scale up to under load
      * @throws IOException          if an I/O error occurs
      * @throws InterruptedException if the thread is interrupted while waiting
      */
-    public static void startGraphPubSub(File inputFile, File outputFile, int numProd, int numCons)
+    public static void startGraphPubSub(File inputFile, File outputFile, int numProd, int minCons,
+            int maxCons)
+            throws IOException, InterruptedException {
+        startGraphPubSub(inputFile, outputFile, numProd, minCons, maxCons, false);
+    }
+
+    /**
+     * Starts the graph publishing and subscribing process, optionally following an input file that is still being
+     * appended to. A followed file is read by a single producer until the JVM shuts down, e.g. on Ctrl-C; shutdown
+     * then waits until every graph read has been processed and the output is flushed.
+     *
+     * @param inputFile  the input file containing graph data, as text or in the binary graphs format
+     * @param outputFile the output file to write the results
+     * @param numProd    the number of graph producers, each reading its own slice of the input, unless following
+     * @param minCons    the number of graph consumers to start with
+     * @param maxCons    the number of graph consumers to scale up to under load
+     * @param follow     whether to follow the input file, which must then be text
+     * @throws IOException          if an I/O error occurs
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public static void startGraphPubSub(File inputFile, File outputFile, int numProd, int minCons,
+            int maxCons, boolean follow)
             throws IOException, InterruptedException {
         PubSub pubSub = new PubSub();
-        String topicName = "Graph";
+        Topic<CsrGraph> topic = pubSub.createTopic("Graph", CsrGraph.class,
+                new TopicConfig().expect(follow ? 1 : numProd, maxCons));
         FileWriter fileWriter = new FileWriter(outputFile);
         if (CREATE_GRAPHS) {
             generateAdjacencyLists(inputFile);
         }
-        ArrayList<GraphProducer> graphProducers = new ArrayList<GraphProducer>();
+        List<RecordReader<CsrGraph>> readers = new ArrayList<>();
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        Closeable input = follow
+                ? followReader(inputFile, b -> new GraphParser(b, GRAPH_SIZE), readers, finished)
+                : openGraphReaders(inputFile, numProd, readers);
+        try {
+            runGraphPubSub(topic, readers, fileWriter, minCons, maxCons);
+        } finally {
+            input.close();
+            finished.complete(null);
+        }
+    }
 
-        for (int i = 0; i < numProd; i++) {
-            graphProducers.add(new GraphProducer(pubSub, topicName, new FileReader(inputFile), GRAPH_SIZE));
+    private static void runGraphPubSub(Topic<CsrGraph> topic, List<RecordReader<CsrGraph>> readers,
+            FileWriter fileWriter, int minCons, int maxCons) throws IOException, InterruptedException {
+        ArrayList<GraphProducer> graphProducers = new ArrayList<GraphProducer>();
+        for (RecordReader<CsrGraph> reader : readers) {
+            graphProducers.add(new GraphProducer(topic, reader));
         }
-        for (int j = 0; j < numCons; j++) {
-            Consumer<HashMap<Integer, ArrayList<Integer>>> consumer = (graph) -> {
-                if (graph == null) {
-                    return;
-                }
-                if (!utils.hasCycle(graph) && utils.isConnected(graph)) {
-                    try {
-                        String[] graphString = GraphUtils.convertGraphToString(graph);
-                        for (String s : graphString) {
-                            fileWriter.write(s);
-                            fileWriter.write('\n');
-                        }
-                        fileWriter.write('\n');
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
+
+        Consumer<List<CsrGraph>> consumer = (graphs) -> {
+            StringBuilder output = new StringBuilder();
+            for (CsrGraph graph : graphs) {
+                if (!GraphUtils.hasCycle(graph) && GraphUtils.isConnected(graph)) {
+                    String[] graphString = GraphUtils.convertGraphToString(graph);
+                    for (String s : graphString) {
+                        output.append(s).append('\n');
                     }
+                    output.append('\n');
                 }
-            };
+            }
+            try {
+                fileWriter.write(output.toString());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
 
-            pubSub.subscribe(topicName, consumer);
-        }
+        topic.subscribeBatch(consumer, BATCH_SIZE, Duration.ZERO, new ScalingPolicy(minCons, maxCons));
 
         for (GraphProducer p : graphProducers) {
             p.start();
         }
 
-        while (true) {
-            if (pubSub.hasStoppedPublishing(topicName)) {
-                try {
-                    fileWriter.flush();
-                    fileWriter.close();
-                    for (int i = 0; i < numProd; i++) {
-                        graphProducers.get(i).join();
-                    }
-                    break;
-                } catch (IOException | InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            TimeUnit.SECONDS.sleep(1);
+        topic.awaitCompletion().join();
+        for (GraphProducer p : graphProducers) {
+            p.join();
         }
+        fileWriter.flush();
+        fileWriter.close();
+        System.out.println(topic.getMetrics());
     }
 
     /**
      * Starts the coordinates publishing and subscribing process.
      * 
-     * @param inputFile  the input file containing coordinates
+     * @param inputFile  the input file containing coordinates, as text or in the binary coordinates format
      * @param outputFile the output file to write the processed coordinates
-     * @param numProd    the number of producer threads
-     * @param numCons    the number of consumer threads
+     * @param numProd    the number of producer threads, each reading its own slice of the input
+     * @param minCons    the number of consumer threads to start with
+     * @param maxCons    the number of consumer threads to scale up to under load
      * @throws IOException          if an I/O error occurs
-     * @throws InterruptedException if the thread is interrupted while sleeping
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public static void startCoordinatesPubSub(File inputFile, File outputFile, int numProd, int minCons,
+            int maxCons)
+            throws IOException, InterruptedException {
+        startCoordinatesPubSub(inputFile, outputFile, numProd, minCons, maxCons, false);
+    }
+
+    /**
+     * Starts the coordinates publishing and subscribing process, optionally following an input file that is still
+     * being appended to. A followed file is read by a single producer until the JVM shuts down, e.g. on Ctrl-C;
+     * shutdown then waits until every task read has been processed and the output is flushed.
+     *
+     * @param inputFile  the input file containing coordinates, as text or in the binary coordinates format
+     * @param outputFile the output file to write the processed coordinates
+     * @param numProd    the number of producer threads, each reading its own slice of the input, unless following
+     * @param minCons    the number of consumer threads to start with
+     * @param maxCons    the number of consumer threads to scale up to under load
+     * @param follow     whether to follow the input file, which must then be text
+     * @throws IOException          if an I/O error occurs
+     * @throws InterruptedException if the thread is interrupted while waiting
      */
-    public static void startCoordinatesPubSub(File inputFile, File outputFile, int numProd, int numCons)
+    public static void startCoordinatesPubSub(File inputFile, File outputFile, int numProd, int minCons,
+            int maxCons, boolean follow)
             throws IOException, InterruptedException {
         PubSub pubSub = new PubSub();
-        String topicName = "Coordinates";
+        Topic<CoordinateTask> topic = pubSub.createTopic("Coordinates", CoordinateTask.class,
+                new TopicConfig().expect(follow ? 1 : numProd, maxCons));
         FileWriter fileWriter = new FileWriter(outputFile);
         // BlockingQueue<CoordinateTask> queue = new BlockingQueue<CoordinateTask>();
         if (POPULATE_COORDS) {
             populateCoordinates(inputFile);
         }
 
-        ArrayList<CoordinatesProducer> coordinatesProducers = new ArrayList<CoordinatesProducer>();
+        List<RecordReader<CoordinateTask>> readers = new ArrayList<>();
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        Closeable input = follow
+                ? followReader(inputFile, b -> new CoordinatesParser(b, NUM_COORDS), readers, finished)
+                : openCoordinatesReaders(inputFile, numProd, readers);
+        try {
+            runCoordinatesPubSub(topic, readers, fileWriter, minCons, maxCons);
+        } finally {
+            input.close();
+            finished.complete(null);
+        }
+    }
 
-        for (int i = 0; i < numProd; i++) {
-            coordinatesProducers.add(new CoordinatesProducer(pubSub, topicName, new FileReader(inputFile), NUM_COORDS));
+    private static void runCoordinatesPubSub(Topic<CoordinateTask> topic, List<RecordReader<CoordinateTask>> readers,
+            FileWriter fileWriter, int minCons, int maxCons) throws IOException, InterruptedException {
+        ArrayList<CoordinatesProducer> coordinatesProducers = new ArrayList<CoordinatesProducer>();
+        for (RecordReader<CoordinateTask> reader : readers) {
+            coordinatesProducers.add(new CoordinatesProducer(topic, reader));
         }
 
-        for (int j = 0; j < numCons; j++) {
-            Consumer<CoordinateTask> consumer = (task) -> {
-                if (task == null) {
-                    return;
-                }
+        Consumer<List<CoordinateTask>> consumer = (tasks) -> {
+            StringBuilder output = new StringBuilder();
+            for (CoordinateTask task : tasks) {
                 double minDist = Double.MAX_VALUE;
-                Point closestPoint = null;
-                for (int i = 0; i < task.points.length; i++) {
-                    double currDist = task.point.getDistance(task.points[i]);
+                int closest = -1;
+                for (int i = 0; i < task.getPointCount(); i++) {
+                    double currDist = task.getDistance(i);
                     if (currDist < minDist) {
                         minDist = currDist;
-                        closestPoint = task.points[i];
+                        closest = i;
                     }
                 }
-                assert closestPoint != null;
-                String response = "Closest point to " + task.point.print() + " is " + closestPoint.print()
-                        + " with distance " + minDist + '\n';
-                System.out.println("Writing to File: " + response);
-                try {
-                    fileWriter.write(response);
-                    fileWriter.write('\n');
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
+                assert closest != -1;
+                String response = "Closest point to " + task.getPoint().print() + " is "
+                        + task.getPoint(closest).print() + " with distance " + minDist + '\n';
+                output.append(response).append('\n');
+            }
+            try {
+                fileWriter.write(output.toString());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        topic.subscribeBatch(consumer, BATCH_SIZE, Duration.ZERO, new ScalingPolicy(minCons, maxCons));
 
-            };
-            pubSub.subscribe(topicName, consumer);
+        for (CoordinatesProducer p : coordinatesProducers) {
+            p.start();
         }
 
+        topic.awaitCompletion().join();
         for (CoordinatesProducer p : coordinatesProducers) {
-            p.start();
+            p.join();
         }
+        fileWriter.flush();
+        fileWriter.close();
+        System.out.println(topic.getMetrics());
+    }
 
-        while (true) {
-            if (pubSub.hasStoppedPublishing(topicName)) {
-                try {
-                    fileWriter.flush();
-                    fileWriter.close();
-                    for (int i = 0; i < numProd; i++) {
-                        coordinatesProducers.get(i).join();
-                    }
-                    break;
-                } catch (IOException | InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+    /**
+     * Opens a single reader that follows a text input file, and closes it when the JVM shuts down. The shutdown waits
+     * until {@code finished} completes, so the records already read are processed and the output is flushed first.
+     *
+     * @param inputFile the input file, which may not exist yet
+     * @param parsers   creates a parser over a buffer of complete records
+     * @param readers   the list the reader is added to
+     * @param finished  completed once the records read have been processed
+     * @return the reader, to be closed once the producer is done
+     * @throws IOException if the file is in a binary format, which cannot be followed
+     */
+    private static <T> Closeable followReader(File inputFile, Function<ByteBuffer, RecordReader<T>> parsers,
+            List<RecordReader<T>> readers, CompletableFuture<Void> finished) throws IOException {
+        Path path = inputFile.toPath();
+        if (inputFile.exists() && (BinaryCoordinatesFile.isBinary(path) || BinaryGraphFile.isBinary(path))) {
+            throw new IOException("Only text input can be followed: " + inputFile);
+        }
+        TailingReader<T> reader = new TailingReader<>(path, parsers);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            reader.close();
+            finished.join();
+        }, "follow-" + inputFile.getName()));
+        readers.add(reader);
+        return reader;
+    }
+
+    /**
+     * Opens one graph reader per producer. A binary graphs file is split into ranges of graphs read in place, and a
+     * text file into slices that are parsed.
+     *
+     * @param inputFile the input file
+     * @param parts     the number of readers
+     * @param readers   the list the readers are added to
+     * @return the open input, to be closed once the readers are done
+     * @throws IOException if the file cannot be opened
+     */
+    private static Closeable openGraphReaders(File inputFile, int parts, List<RecordReader<CsrGraph>> readers)
+            throws IOException {
+        if (BinaryGraphFile.isBinary(inputFile.toPath())) {
+            BinaryGraphFile file = new BinaryGraphFile(inputFile.toPath());
+            if (file.getVerticesPerGraph() != GRAPH_SIZE) {
+                file.close();
+                throw new IOException("Graphs in " + inputFile + " have " + file.getVerticesPerGraph()
+                        + " vertices, expected " + GRAPH_SIZE);
             }
-            TimeUnit.SECONDS.sleep(1);
+            readers.addAll(file.split(parts));
+            return file;
+        }
+        FileSplitter splitter = new FileSplitter(inputFile.toPath());
+        for (FileSlice slice : splitter.split(parts)) {
+            readers.add(new GraphParser(slice.map(), GRAPH_SIZE));
+        }
+        return splitter;
+    }
+
+    /**
+     * Opens one coordinates reader per producer. A binary coordinates file is split into ranges of tasks read in
+     * place, and a text file into slices that are parsed.
+     *
+     * @param inputFile the input file
+     * @param parts     the number of readers
+     * @param readers   the list the readers are added to
+     * @return the open input, to be closed once the readers are done
+     * @throws IOException if the file cannot be opened
+     */
+    private static Closeable openCoordinatesReaders(File inputFile, int parts,
+            List<RecordReader<CoordinateTask>> readers) throws IOException {
+        if (BinaryCoordinatesFile.isBinary(inputFile.toPath())) {
+            BinaryCoordinatesFile file = new BinaryCoordinatesFile(inputFile.toPath());
+            if (file.getPointsPerTask() != NUM_COORDS) {
+                file.close();
+                throw new IOException("Tasks in " + inputFile + " have " + file.getPointsPerTask()
+                        + " points, expected " + NUM_COORDS);
+            }
+            readers.addAll(file.split(parts));
+            return file;
+        }
+        FileSplitter splitter = new FileSplitter(inputFile.toPath());
+        for (FileSlice slice : splitter.split(parts)) {
+            readers.add(new CoordinatesParser(slice.map(), NUM_COORDS));
         }
+        return splitter;
     }
 
     /**
@@ -0,0 +1,124 @@
+package PubSub;
+
+import java.time.Duration;
+
+/**
+ * Describes how a {@link SubscriberPool} grows and shrinks a topic's subscribers.
+ * Every interval the pool samples the topic's queue depth, as a fraction of the messages the topic buffers, and the
+ * utilisation of its subscribers, the share of the interval they spent processing messages. A subscriber is added
+ * once both have been at or above the scale-up thresholds for the sustained number of samples, and one is retired
+ * once both have been at or below the scale-down thresholds for as long.
+ * Setters return this policy so options can be chained.
+ */
+public class ScalingPolicy {
+    private final int minSubscribers;
+    private final int maxSubscribers;
+    private Duration interval = Duration.ofMillis(100);
+    private double scaleUpDepth = 0.5;
+    private double scaleUpUtilisation = 0.7;
+    private double scaleDownDepth = 0.1;
+    private double scaleDownUtilisation = 0.3;
+    private int sustainedSamples = 3;
+
+    /**
+     * Constructs a policy keeping between the given numbers of subscribers.
+     *
+     * @param minSubscribers the number of subscribers the pool starts with and never goes below.
+     * @param maxSubscribers the number of subscribers the pool never goes above.
+     */
+    public ScalingPolicy(int minSubscribers, int maxSubscribers) {
+        if (minSubscribers <= 0 || maxSubscribers < minSubscribers) {
+            throw new IllegalArgumentException("Invalid subscriber bounds: " + minSubscribers + ".." + maxSubscribers);
+        }
+        this.minSubscribers = minSubscribers;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Sets how often the pool samples the topic.
+     *
+     * @param interval the sampling interval.
+     * @return this policy.
+     */
+    public ScalingPolicy interval(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        this.interval = interval;
+        return this;
+    }
+
+    /**
+     * Sets the thresholds at or above which the pool adds a subscriber.
+     *
+     * @param depth       the queue depth as a fraction of the topic's buffered capacity.
+     * @param utilisation the share of the interval the subscribers spent processing messages.
+     * @return this policy.
+     */
+    public ScalingPolicy scaleUpAt(double depth, double utilisation) {
+        this.scaleUpDepth = depth;
+        this.scaleUpUtilisation = utilisation;
+        return this;
+    }
+
+    /**
+     * Sets the thresholds at or below which the pool retires a subscriber.
+     *
+     * @param depth       the queue depth as a fraction of the topic's buffered capacity.
+     * @param utilisation the share of the interval the subscribers spent processing messages.
+     * @return this policy.
+     */
+    public ScalingPolicy scaleDownAt(double depth, double utilisation) {
+        this.scaleDownDepth = depth;
+        this.scaleDownUtilisation = utilisation;
+        return this;
+    }
+
+    /**
+     * Sets how many consecutive samples must cross a threshold before the pool acts.
+     * The count restarts after every change, which also keeps the pool from changing size more than once per
+     * sustained period.
+     *
+     * @param samples the number of consecutive samples.
+     * @return this policy.
+     */
+    public ScalingPolicy sustainedFor(int samples) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Sample count must be positive: " + samples);
+        }
+        this.sustainedSamples = samples;
+        return this;
+    }
+
+    public int getMinSubscribers() {
+        return minSubscribers;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public double getScaleUpDepth() {
+        return scaleUpDepth;
+    }
+
+    public double getScaleUpUtilisation() {
+        return scaleUpUtilisation;
+    }
+
+    public double getScaleDownDepth() {
+        return scaleDownDepth;
+    }
+
+    public double getScaleDownUtilisation() {
+        return scaleDownUtilisation;
+    }
+
+    public int getSustainedSamples() {
+        return sustainedSamples;
+    }
+}
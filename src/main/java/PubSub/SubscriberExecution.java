@@ -0,0 +1,13 @@
+package PubSub;
+
+/**
+ * How a topic runs its subscriber loops.
+ */
+public enum SubscriberExecution {
+    /** Run each subscriber on its own dedicated platform thread. */
+    PLATFORM_THREAD,
+    /** Run each subscriber on its own virtual thread, so idle subscribers do not hold an OS thread. */
+    VIRTUAL_THREAD,
+    /** Run each subscriber as a task on the topic's executor service that returns its thread whenever it is idle. */
+    EXECUTOR
+}
@@ -0,0 +1,39 @@
+package PubSub;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for a single subscriber of a topic: how many messages it processed and how long it spent processing them.
+ */
+public class SubscriberMetrics {
+    private final String name;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+
+    SubscriberMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a call to the subscriber.
+     *
+     * @param count      the number of messages handed to the subscriber.
+     * @param startNanos the {@link System#nanoTime()} value when the call started.
+     */
+    void record(int count, long startNanos) {
+        processingNanos.add(System.nanoTime() - startNanos);
+        processed.add(count);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    public long getProcessingNanos() {
+        return processingNanos.sum();
+    }
+}
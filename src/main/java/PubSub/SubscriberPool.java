@@ -0,0 +1,115 @@
+package PubSub;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A group of identical subscribers of one topic whose size follows the topic's load.
+ * A scaler thread samples the topic according to a {@link ScalingPolicy}: it starts another subscriber while the
+ * queue stays deep and the subscribers stay busy, and cancels the newest one while the queue stays shallow and the
+ * subscribers stay idle. A cancelled subscriber finishes what it is processing before it exits, so scaling down
+ * never loses a message. On partitioned topics the pool never grows beyond the partition count, since every further
+ * member of the consumer group would own no partition. Scaling stops once the topic stops publishing, leaving the
+ * remaining subscribers to drain it.
+ */
+public class SubscriberPool {
+    private final Topic<?> topic;
+    private final Supplier<Subscription> subscriber;
+    private final ScalingPolicy policy;
+    private final long bufferedCapacity;
+    private final int maxSubscribers;
+    private final ArrayDeque<Subscription> subscriptions = new ArrayDeque<>();
+    private final Map<Subscription, Long> lastProcessingNanos = new HashMap<>();
+    private final Thread scaler;
+    private volatile boolean closed = false;
+    private int highSamples = 0;
+    private int lowSamples = 0;
+
+    SubscriberPool(Topic<?> topic, Supplier<Subscription> subscriber, ScalingPolicy policy, long bufferedCapacity,
+            int maxSubscribers) {
+        this.topic = topic;
+        this.subscriber = subscriber;
+        this.policy = policy;
+        this.bufferedCapacity = bufferedCapacity;
+        this.maxSubscribers = Math.min(policy.getMaxSubscribers(),
+                Math.max(maxSubscribers, policy.getMinSubscribers()));
+        for (int i = 0; i < policy.getMinSubscribers(); i++) {
+            grow();
+        }
+        this.scaler = Thread.ofPlatform().name(topic.getName() + "-scaler").daemon().start(this::run);
+    }
+
+    private void run() {
+        long intervalNanos = policy.getInterval().toNanos();
+        long last = System.nanoTime();
+        while (!closed && !topic.hasStoppedPublishing()) {
+            LockSupport.parkNanos(intervalNanos);
+            long now = System.nanoTime();
+            sample(now - last);
+            last = now;
+        }
+    }
+
+    /**
+     * Compares the topic's depth and the subscribers' utilisation over the last interval with the policy's
+     * thresholds, and grows or shrinks the pool once a threshold has been crossed for long enough.
+     */
+    private synchronized void sample(long elapsedNanos) {
+        if (closed || topic.hasStoppedPublishing()) {
+            return;
+        }
+        double depth = (double) topic.getMetrics().getDepth() / bufferedCapacity;
+        long busyNanos = 0;
+        for (Subscription subscription : subscriptions) {
+            long processing = subscription.getMetrics().getProcessingNanos();
+            busyNanos += processing - lastProcessingNanos.put(subscription, processing);
+        }
+        double utilisation = (double) busyNanos / ((double) elapsedNanos * subscriptions.size());
+
+        highSamples = depth >= policy.getScaleUpDepth() && utilisation >= policy.getScaleUpUtilisation()
+                ? highSamples + 1 : 0;
+        lowSamples = depth <= policy.getScaleDownDepth() && utilisation <= policy.getScaleDownUtilisation()
+                ? lowSamples + 1 : 0;
+        if (highSamples >= policy.getSustainedSamples() && subscriptions.size() < maxSubscribers) {
+            grow();
+            highSamples = 0;
+        } else if (lowSamples >= policy.getSustainedSamples()
+                && subscriptions.size() > policy.getMinSubscribers()) {
+            shrink();
+            lowSamples = 0;
+        }
+    }
+
+    private void grow() {
+        Subscription subscription = subscriber.get();
+        subscriptions.push(subscription);
+        lastProcessingNanos.put(subscription, subscription.getMetrics().getProcessingNanos());
+    }
+
+    private void shrink() {
+        Subscription subscription = subscriptions.pop();
+        lastProcessingNanos.remove(subscription);
+        subscription.cancel();
+    }
+
+    /**
+     * @return the number of subscribers currently in the pool.
+     */
+    public synchronized int getSize() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Stops scaling and cancels every subscriber in the pool.
+     */
+    public synchronized void cancel() {
+        closed = true;
+        while (!subscriptions.isEmpty()) {
+            shrink();
+        }
+        LockSupport.unpark(scaler);
+    }
+}
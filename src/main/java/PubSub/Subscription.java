@@ -0,0 +1,86 @@
+package PubSub;
+
+/**
+ * A handle to a running subscriber, used to stop it before its topic completes.
+ * A cancelled subscriber finishes the message or batch it is processing and exits; on partitioned topics its
+ * partitions are handed to the remaining members of the consumer group.
+ */
+public class Subscription {
+    private volatile boolean cancelled = false;
+    private volatile Runnable onCancel = null;
+    private final SubscriberMetrics metrics;
+    private final boolean pooled;
+    private Thread waiter = null;
+    private boolean woken = false;
+
+    Subscription(SubscriberMetrics metrics, boolean pooled) {
+        this.metrics = metrics;
+        this.pooled = pooled;
+    }
+
+    /**
+     * Sets an action that wakes the subscriber loop when it is cancelled while waiting.
+     */
+    void onCancel(Runnable onCancel) {
+        this.onCancel = onCancel;
+    }
+
+    /**
+     * @return true if the subscriber belongs to a subscriber pool, whose waits on a shared queue cancelling interrupts.
+     */
+    boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Records the calling thread as waiting for a message, so cancelling the subscription interrupts the wait.
+     *
+     * @return false if the subscription is already cancelled.
+     */
+    synchronized boolean beginWait() {
+        if (cancelled) {
+            return false;
+        }
+        waiter = Thread.currentThread();
+        return true;
+    }
+
+    /**
+     * Ends a wait started by {@link #beginWait()}. An interrupt the cancellation sent is cleared here, so it never
+     * reaches the subscriber's own code.
+     */
+    synchronized void endWait() {
+        waiter = null;
+        if (woken) {
+            woken = false;
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Cancels the subscriber. A pool's subscriber waiting for a message is interrupted out of the wait, a broadcast
+     * subscriber's cursor is stopped, and a subscriber run on an executor is submitted to exit. Any other subscriber
+     * waiting on a shared queue exits after processing the next message it takes, or once the topic stops.
+     */
+    public void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            if (waiter != null) {
+                woken = true;
+                waiter.interrupt();
+            }
+        }
+        Runnable action = onCancel;
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public SubscriberMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,1099 @@
+package PubSub;
+
+import Codec.Codec;
+import DataStructures.Log.DurableLog;
+import DataStructures.Log.LogRecord;
+import DataStructures.Queue.BroadcastRing;
+import DataStructures.Queue.MessageQueue;
+import DataStructures.Queue.MessageSink;
+import DataStructures.Queue.MessageSource;
+import DataStructures.Queue.PartitionedQueue;
+import DataStructures.Queue.QueueType;
+import DataStructures.Queue.SpillingQueue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A typed handle to a PubSub topic.
+ * Publishers and subscribers holding a handle go straight to the topic's queue without looking the topic up by name.
+ * Handles are obtained from {@link PubSub#topic} or {@link PubSub#createTopic}.
+ *
+ * @param <T> the type of the messages published to the topic.
+ */
+public class Topic<T> {
+    private static final long LINGER_POLL_NANOS = 50_000;
+    private static final long CANCELLABLE_WAIT_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int GROUP_BATCH = 32;
+    private static final int FLOW_REQUEST = 64;
+    private static final int TASK_STEPS = 64;
+
+    private final String name;
+    private final Class<?> messageType;
+    private final Codec<T> codec;
+    private final MessageSink<T> queue;
+    private final MessageQueue<T> shared;
+    private final BroadcastRing<T> ring;
+    private final DurableLog<T> log;
+    private final PartitionedQueue<T> partitions;
+    private final ConsumerGroup<T> group;
+    private final QueueType queueType;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<Object> rejectionHandler;
+    private final TopicMetrics metrics;
+    private final int capacity;
+    private final SubscriberExecution subscriberExecution;
+    private final ExecutorService subscriberExecutor;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final CopyOnWriteArrayList<Runnable> publishListeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<SubscriberTask> idleTasks = new ConcurrentLinkedQueue<>();
+    private volatile ToLongFunction<? super T> arrivalTime = null;
+    private int subscribers = 0;
+    private int activeSubscribers = 0;
+    private int publishers = 0;
+    private int activePublishers = 0;
+
+    @SuppressWarnings("unchecked")
+    Topic(String name, Class<?> messageType, TopicConfig config, Codec<?> codec) {
+        this.name = name;
+        this.messageType = messageType;
+        this.codec = (Codec<T>) codec;
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.rejectionHandler = config.getRejectionHandler();
+        this.subscriberExecution = config.getSubscriberExecution();
+        this.subscriberExecutor = config.getSubscriberExecutor();
+        boolean partitioned = config.getPartitions() > 0;
+        // Spilling, durable, broadcast and partitioned topics are always backed by their own multi-producer,
+        // multi-consumer structures.
+        boolean ownQueue = overflowPolicy == OverflowPolicy.SPILL || config.isDurable() || config.isBroadcast()
+                || partitioned;
+        this.queueType = ownQueue ? null : config.getQueueType();
+        if (partitioned && (config.isBroadcast() || overflowPolicy == OverflowPolicy.SPILL)) {
+            throw new IllegalArgumentException("Partitioned topics cannot be broadcast or spill to disk");
+        }
+        if (config.isDurable() && (partitioned || config.isBroadcast() || overflowPolicy == OverflowPolicy.SPILL)) {
+            throw new IllegalArgumentException("Durable topics cannot be partitioned, broadcast or spill to disk");
+        }
+        if (ownQueue && !partitioned && !config.isBroadcast() && config.getWaitStrategy() != null) {
+            throw new IllegalArgumentException("Wait strategies only apply to lock-free queues, not to spilling or "
+                    + "durable topics");
+        }
+        if ((config.isDurable() || overflowPolicy == OverflowPolicy.SPILL) && codec == null) {
+            throw new IllegalArgumentException("No codec set or registered for " + messageType.getName());
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST && queueType == QueueType.SPSC) {
+            throw new IllegalArgumentException("Dropping the oldest message is not supported on SPSC topics");
+        }
+        if (config.isBroadcast()
+                && (overflowPolicy == OverflowPolicy.DROP_OLDEST || overflowPolicy == OverflowPolicy.SPILL)) {
+            throw new IllegalArgumentException(overflowPolicy + " is not supported on broadcast topics");
+        }
+        if (overflowPolicy == OverflowPolicy.REJECT && rejectionHandler == null) {
+            throw new IllegalArgumentException("Rejecting topics need a rejection handler");
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            if (config.getSpillDirectory() == null) {
+                throw new IllegalArgumentException("Spilling topics need a spill directory");
+            }
+            this.queue = new SpillingQueue<>(config.getCapacity(), config.getSpillDirectory(), this.codec);
+        } else if (config.isDurable()) {
+            this.queue = new DurableLog<>(config.getLogDirectory(), this.codec);
+        } else if (config.isBroadcast()) {
+            this.queue = config.getWaitStrategy() == null ? new BroadcastRing<>(config.getCapacity())
+                    : new BroadcastRing<>(config.getCapacity(), config.getWaitStrategy());
+        } else if (partitioned) {
+            // Several publishers write to each partition, so partitions never use the SPSC queue.
+            QueueType partitionType = config.getQueueType();
+            if (partitionType == QueueType.SPSC) {
+                partitionType = config.getWaitStrategy() != null ? QueueType.LOCK_FREE : QueueType.ARRAY;
+            }
+            this.queue = new PartitionedQueue<>(config.getPartitions(), partitionType, config.getCapacity(),
+                    config.getWaitStrategy());
+        } else {
+            this.queue = queueType.create(config.getCapacity(), config.getWaitStrategy());
+        }
+        this.ring = config.isBroadcast() ? (BroadcastRing<T>) queue : null;
+        // Every other topic is written and read through the same queue.
+        this.shared = ring == null ? (MessageQueue<T>) queue : null;
+        this.log = config.isDurable() ? (DurableLog<T>) queue : null;
+        if (log != null) {
+            completion.whenComplete((ignored, error) -> log.close());
+        }
+        this.partitions = partitioned ? (PartitionedQueue<T>) queue : null;
+        this.group = partitioned ? new ConsumerGroup<>(partitions) : null;
+        this.metrics = new TopicMetrics(name, queue);
+        this.capacity = config.getCapacity();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the capacity the topic was created with. On partitioned topics it is the capacity of each partition.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the message class the topic was created with.
+     *
+     * @return the message class.
+     */
+    public Class<?> getMessageType() {
+        return messageType;
+    }
+
+    /**
+     * Returns the codec the topic's messages are serialized with when they leave the heap: the one set in the topic's
+     * config, or else the one registered for its message class.
+     *
+     * @return the codec, or null if the topic has none.
+     */
+    public Codec<T> getCodec() {
+        return codec;
+    }
+
+    /**
+     * Publishes a message to the topic.
+     * If the topic's queue is full, the message is handled according to the topic's overflow policy.
+     * On partitioned topics unkeyed messages are spread over the partitions round-robin.
+     *
+     * @param value the message to be published.
+     */
+    public void publish(T value) {
+        publishTo(queue, shared, value);
+        firePublished();
+    }
+
+    /**
+     * Publishes a message with a key. On partitioned topics every message with the same key goes to the same
+     * partition, so subscribers process them in the order they were published. On other topics the key is ignored.
+     *
+     * @param key   the key choosing the message's partition.
+     * @param value the message to be published.
+     */
+    public void publish(Object key, T value) {
+        if (partitions == null) {
+            publishTo(queue, shared, value);
+        } else {
+            MessageQueue<T> partition = partitions.getPartition(partitions.partitionFor(key));
+            publishTo(partition, partition, value);
+            partitions.signalAvailable();
+        }
+        firePublished();
+    }
+
+    /**
+     * Adds a message to the given queue, applying the overflow policy if the queue is full.
+     * Dropping the oldest message removes it through the queue's reading side, which broadcast topics do not share.
+     */
+    private void publishTo(MessageSink<T> queue, MessageSource<T> oldest, T value) {
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                if (!queue.tryAdd(value)) {
+                    metrics.recordDropped();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.tryAdd(value) && queue.getIsRunning()) {
+                    if (oldest.tryRemove() != null) {
+                        metrics.recordDropped();
+                    }
+                }
+                break;
+            case REJECT:
+                if (!queue.tryAdd(value) && queue.getIsRunning()) {
+                    metrics.recordDropped();
+                    rejectionHandler.accept(value);
+                }
+                break;
+            case SPILL:
+            case BLOCK:
+            default:
+                queue.addToQueue(value);
+                break;
+        }
+    }
+
+    /**
+     * Publishes a message, waiting up to the given timeout for space in the topic's queue.
+     *
+     * @param value   the message to be published.
+     * @param timeout how long to wait for space.
+     * @param unit    the unit of the timeout.
+     * @return true if the message was published, false if the timeout elapsed or publishing has stopped.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        boolean published = queue.offer(value, timeout, unit);
+        if (published) {
+            firePublished();
+        }
+        return published;
+    }
+
+    /**
+     * Publishes a batch of messages, in order.
+     * The topic's queue is locked and its consumers are woken once per run of messages rather than once per message.
+     *
+     * @param values the messages to be published.
+     */
+    public void publishBatch(Collection<? extends T> values) {
+        if (overflowPolicy == OverflowPolicy.BLOCK || overflowPolicy == OverflowPolicy.SPILL) {
+            queue.addAll(values);
+        } else {
+            for (T value : values) {
+                publishTo(queue, shared, value);
+            }
+        }
+        firePublished();
+    }
+
+    /**
+     * Exposes the topic as a reactive-streams publisher. Each Flow subscriber counts as a subscriber of the topic
+     * and is delivered messages on the given executor, never more than it has requested, so no thread waits on
+     * the topic's queue while the subscriber has no demand.
+     * On partitioned topics Flow subscribers take messages from any partition, so per-key order is not kept.
+     *
+     * @param executor the executor deliveries run on.
+     * @return a publisher of the topic's messages.
+     */
+    public Flow.Publisher<T> asPublisher(Executor executor) {
+        return new TopicPublisher<>(this, executor);
+    }
+
+    /**
+     * Publishes every item of a reactive-streams source to the topic, requesting items in batches as earlier ones are
+     * published. The source counts as a publisher of the topic until it completes. Items are published with the
+     * topic's overflow policy, so a source delivering into a full BLOCK topic waits on its delivering thread.
+     * A failing source completes the topic exceptionally.
+     *
+     * @param source the source to publish.
+     */
+    public void publishFrom(Flow.Publisher<? extends T> source) {
+        registerPublisher();
+        source.subscribe(new Flow.Subscriber<T>() {
+            private Flow.Subscription subscription;
+            private int received = 0;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(FLOW_REQUEST);
+            }
+
+            @Override
+            public void onNext(T item) {
+                publish(item);
+                if (++received == FLOW_REQUEST / 2) {
+                    received = 0;
+                    subscription.request(FLOW_REQUEST / 2);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                stopPublishing(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                stopPublishing();
+            }
+        });
+    }
+
+    /**
+     * Registers an action run after every publish and when the topic stops.
+     */
+    void addPublishListener(Runnable listener) {
+        publishListeners.add(listener);
+    }
+
+    void removePublishListener(Runnable listener) {
+        publishListeners.remove(listener);
+    }
+
+    private void firePublished() {
+        if (!publishListeners.isEmpty()) {
+            for (Runnable listener : publishListeners) {
+                listener.run();
+            }
+        }
+        if (!idleTasks.isEmpty()) {
+            wakeIdleTask();
+        }
+    }
+
+    /**
+     * Wakes one idle executor subscriber of the shared queue, skipping subscribers that have ended.
+     */
+    private void wakeIdleTask() {
+        SubscriberTask task;
+        while ((task = idleTasks.poll()) != null) {
+            if (task.signal()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Subscribes to the topic and starts a new thread to receive its messages.
+     * Topics backed by an SPSC queue accept a single subscriber. On broadcast topics the subscriber receives every
+     * message published after it subscribed. On partitioned topics the subscriber joins the topic's consumer group
+     * and receives the messages of the partitions it owns. On durable topics each message is committed once the
+     * subscriber returns from it.
+     * The thread exits once publishing has stopped and the topic has been drained. Subscribers of topics with a
+     * subscriber executor run as tasks on it instead, see {@link TopicConfig#subscriberExecutor}.
+     *
+     * @param subscriber the consumer function that will be called with each received message.
+     * @return a handle that can cancel the subscriber.
+     * @throws RejectedExecutionException if the topic's subscriber executor does not accept the subscriber.
+     */
+    public Subscription subscribe(Consumer<? super T> subscriber) {
+        return subscribe(subscriber, false);
+    }
+
+    /**
+     * @param pooled true if a subscriber pool may cancel the subscriber while it waits on the shared queue.
+     */
+    private Subscription subscribe(Consumer<? super T> subscriber, boolean pooled) {
+        MessageSource<T> source = addSubscriber();
+        SubscriberMetrics subscriberMetrics = metrics.addSubscriber();
+        Subscription subscription = new Subscription(subscriberMetrics, pooled);
+        if (group != null) {
+            ConsumerGroup.Member member = group.join();
+            Consumer<List<T>> handler = batch -> {
+                for (T task : batch) {
+                    long start = System.nanoTime();
+                    subscriber.accept(task);
+                    recordProcessed(subscriberMetrics, task, start);
+                }
+            };
+            if (subscriberExecution == SubscriberExecution.EXECUTOR) {
+                startTask(member, subscription, GROUP_BATCH, handler);
+            } else {
+                startSubscriber(source, () -> group.consume(member, subscription, GROUP_BATCH, handler));
+            }
+            return subscription;
+        }
+        if (subscriberExecution == SubscriberExecution.EXECUTOR) {
+            BooleanSupplier step;
+            if (log != null) {
+                List<LogRecord<T>> records = new ArrayList<>(1);
+                step = () -> {
+                    if (log.drainRecords(records, 1) == 0) {
+                        return false;
+                    }
+                    LogRecord<T> record = records.get(0);
+                    records.clear();
+                    long start = System.nanoTime();
+                    subscriber.accept(record.getValue());
+                    recordProcessed(subscriberMetrics, record.getValue(), start);
+                    log.acknowledge(record.getOffset());
+                    return true;
+                };
+            } else {
+                step = () -> {
+                    T task = source.tryRemove();
+                    if (task == null) {
+                        return false;
+                    }
+                    long start = System.nanoTime();
+                    subscriber.accept(task);
+                    recordProcessed(subscriberMetrics, task, start);
+                    return true;
+                };
+            }
+            startTask(source, subscription, step);
+            return subscription;
+        }
+        if (log != null) {
+            startSubscriber(source, () -> {
+                while (!subscription.isCancelled()) {
+                    LogRecord<T> record = take(subscription);
+                    if (record == null) {
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    subscriber.accept(record.getValue());
+                    recordProcessed(subscriberMetrics, record.getValue(), start);
+                    log.acknowledge(record.getOffset());
+                }
+            });
+            return subscription;
+        }
+        if (source != shared) {
+            subscription.onCancel(source::stop);
+        }
+        startSubscriber(source, () -> {
+            while (!subscription.isCancelled()) {
+                T task = take(source, subscription);
+                if (task == null) {
+                    return;
+                }
+                long start = System.nanoTime();
+                subscriber.accept(task);
+                recordProcessed(subscriberMetrics, task, start);
+            }
+        });
+        return subscription;
+    }
+
+    /**
+     * Subscribes to the topic and starts a new thread that receives its messages in batches.
+     * The thread waits for the first message of a batch, takes every other message already queued up to maxBatch,
+     * and then waits up to maxLinger for the batch to fill before handing it to the subscriber.
+     * The list is the subscriber's batch buffer on every kind of topic: it is cleared and refilled for the next batch
+     * once the subscriber returns, so a subscriber that keeps messages or hands them to another thread copies them.
+     * On partitioned topics each batch holds messages of a single partition in order, and maxLinger is not used.
+     * On durable topics the batch is committed once the subscriber returns from it.
+     * The thread exits once publishing has stopped and the topic has been drained. Subscribers of topics with a
+     * subscriber executor run as tasks on it instead, and are handed whatever is queued without waiting for maxLinger,
+     * since waiting for a batch to fill would hold one of the executor's threads.
+     *
+     * @param subscriber the consumer function that will be called with each batch of messages.
+     * @param maxBatch   the maximum number of messages in a batch.
+     * @param maxLinger  how long to wait for a partial batch to fill, or zero to deliver whatever is queued.
+     * @return a handle that can cancel the subscriber.
+     * @throws RejectedExecutionException if the topic's subscriber executor does not accept the subscriber.
+     */
+    public Subscription subscribeBatch(Consumer<? super List<T>> subscriber, int maxBatch, Duration maxLinger) {
+        return subscribeBatch(subscriber, maxBatch, maxLinger, false);
+    }
+
+    /**
+     * @param pooled true if a subscriber pool may cancel the subscriber while it waits on the shared queue.
+     */
+    private Subscription subscribeBatch(Consumer<? super List<T>> subscriber, int maxBatch, Duration maxLinger,
+            boolean pooled) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatch);
+        }
+        MessageSource<T> source = addSubscriber();
+        SubscriberMetrics subscriberMetrics = metrics.addSubscriber();
+        Subscription subscription = new Subscription(subscriberMetrics, pooled);
+        if (group != null) {
+            ConsumerGroup.Member member = group.join();
+            Consumer<List<T>> handler = batch -> {
+                long start = System.nanoTime();
+                subscriber.accept(batch);
+                recordProcessed(subscriberMetrics, batch, start);
+            };
+            if (subscriberExecution == SubscriberExecution.EXECUTOR) {
+                startTask(member, subscription, maxBatch, handler);
+            } else {
+                startSubscriber(source, () -> group.consume(member, subscription, maxBatch, handler));
+            }
+            return subscription;
+        }
+        if (subscriberExecution == SubscriberExecution.EXECUTOR) {
+            BooleanSupplier step;
+            List<T> batch = new ArrayList<>(maxBatch);
+            if (log != null) {
+                List<LogRecord<T>> records = new ArrayList<>(maxBatch);
+                step = () -> {
+                    if (log.drainRecords(records, maxBatch) == 0) {
+                        return false;
+                    }
+                    for (LogRecord<T> record : records) {
+                        batch.add(record.getValue());
+                    }
+                    long start = System.nanoTime();
+                    subscriber.accept(batch);
+                    recordProcessed(subscriberMetrics, batch, start);
+                    log.acknowledgeAll(records);
+                    records.clear();
+                    batch.clear();
+                    return true;
+                };
+            } else {
+                step = () -> {
+                    if (source.drainTo(batch, maxBatch) == 0) {
+                        return false;
+                    }
+                    long start = System.nanoTime();
+                    subscriber.accept(batch);
+                    recordProcessed(subscriberMetrics, batch, start);
+                    batch.clear();
+                    return true;
+                };
+            }
+            startTask(source, subscription, step);
+            return subscription;
+        }
+        long lingerNanos = maxLinger.toNanos();
+        if (log != null) {
+            startSubscriber(source, () -> {
+                List<LogRecord<T>> records = new ArrayList<>(maxBatch);
+                List<T> batch = new ArrayList<>(maxBatch);
+                while (!subscription.isCancelled()) {
+                    LogRecord<T> first = take(subscription);
+                    if (first == null) {
+                        return;
+                    }
+                    records.add(first);
+                    log.drainRecords(records, maxBatch - 1);
+                    long deadline = System.nanoTime() + lingerNanos;
+                    while (records.size() < maxBatch && log.getIsRunning()) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        if (log.drainRecords(records, maxBatch - records.size()) == 0) {
+                            LockSupport.parkNanos(Math.min(remaining, LINGER_POLL_NANOS));
+                        }
+                    }
+                    for (LogRecord<T> record : records) {
+                        batch.add(record.getValue());
+                    }
+                    long start = System.nanoTime();
+                    subscriber.accept(batch);
+                    recordProcessed(subscriberMetrics, batch, start);
+                    log.acknowledgeAll(records);
+                    records.clear();
+                    batch.clear();
+                }
+            });
+            return subscription;
+        }
+        if (source != shared) {
+            subscription.onCancel(source::stop);
+        }
+        startSubscriber(source, () -> {
+            List<T> batch = new ArrayList<>(maxBatch);
+            while (!subscription.isCancelled()) {
+                T first = take(source, subscription);
+                if (first == null) {
+                    return;
+                }
+                batch.add(first);
+                source.drainTo(batch, maxBatch - 1);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch && source.getIsRunning()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    if (source.drainTo(batch, maxBatch - batch.size()) == 0) {
+                        LockSupport.parkNanos(Math.min(remaining, LINGER_POLL_NANOS));
+                    }
+                }
+                long start = System.nanoTime();
+                subscriber.accept(batch);
+                recordProcessed(subscriberMetrics, batch, start);
+                batch.clear();
+            }
+        });
+        return subscription;
+    }
+
+    /**
+     * Subscribes a pool of subscribers whose size follows the topic's load within the policy's bounds.
+     * Each subscriber of the pool behaves as if added by {@link #subscribe(Consumer)}.
+     *
+     * @param subscriber the consumer function that will be called with each received message.
+     * @param policy     when to add and retire subscribers.
+     * @return the pool.
+     * @throws IllegalArgumentException if the topic is broadcast, or single-consumer and the policy allows more than
+     *                                  one subscriber.
+     */
+    public SubscriberPool subscribe(Consumer<? super T> subscriber, ScalingPolicy policy) {
+        checkScalable(policy);
+        return new SubscriberPool(this, () -> subscribe(subscriber, true), policy, getBufferedCapacity(),
+                getMaxUsefulSubscribers());
+    }
+
+    /**
+     * Subscribes a pool of batch subscribers whose size follows the topic's load within the policy's bounds.
+     * Each subscriber of the pool behaves as if added by {@link #subscribeBatch(Consumer, int, Duration)}.
+     *
+     * @param subscriber the consumer function that will be called with each batch of messages.
+     * @param maxBatch   the maximum number of messages in a batch.
+     * @param maxLinger  how long to wait for a partial batch to fill, or zero to deliver whatever is queued.
+     * @param policy     when to add and retire subscribers.
+     * @return the pool.
+     * @throws IllegalArgumentException if the topic is broadcast, or single-consumer and the policy allows more than
+     *                                  one subscriber.
+     */
+    public SubscriberPool subscribeBatch(Consumer<? super List<T>> subscriber, int maxBatch, Duration maxLinger,
+            ScalingPolicy policy) {
+        checkScalable(policy);
+        return new SubscriberPool(this, () -> subscribeBatch(subscriber, maxBatch, maxLinger, true), policy,
+                getBufferedCapacity(), getMaxUsefulSubscribers());
+    }
+
+    private void checkScalable(ScalingPolicy policy) {
+        if (ring != null) {
+            throw new IllegalArgumentException("Broadcast subscribers each receive every message and cannot be scaled");
+        }
+        if (queueType == QueueType.SPSC && policy.getMaxSubscribers() > 1) {
+            throw new IllegalArgumentException("Single-consumer topics cannot have more than one subscriber");
+        }
+    }
+
+    /**
+     * @return the number of messages the topic buffers in memory: its capacity, times the partition count on
+     *         partitioned topics.
+     */
+    private long getBufferedCapacity() {
+        return partitions == null ? capacity : (long) capacity * partitions.getPartitionCount();
+    }
+
+    /**
+     * @return the partition count on partitioned topics, where further subscribers would own no partition.
+     */
+    private int getMaxUsefulSubscribers() {
+        return partitions == null ? Integer.MAX_VALUE : partitions.getPartitionCount();
+    }
+
+    /**
+     * Takes the next message for a subscriber loop, waiting while the topic is empty.
+     * A pool's subscriber on the shared queue waits in an interruptible poll that cancelling its subscription
+     * interrupts, since the pool cannot wake one waiter of a queue shared with others. Every other subscriber blocks
+     * in the queue's plain remove; a broadcast cursor is stopped on cancellation.
+     *
+     * @return the message, or null once the subscription is cancelled or the queue has stopped and been drained.
+     */
+    private T take(MessageSource<T> source, Subscription subscription) {
+        if (source != shared || !subscription.isPooled()) {
+            return source.removeFromQueue();
+        }
+        try {
+            while (subscription.beginWait()) {
+                T value;
+                try {
+                    value = source.poll(CANCELLABLE_WAIT_NANOS, TimeUnit.NANOSECONDS);
+                } finally {
+                    subscription.endWait();
+                }
+                if (value != null || (!source.getIsRunning() && source.size() == 0)) {
+                    return value;
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            if (!subscription.isCancelled()) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Takes the next record of the topic's log for a subscriber loop, waiting like
+     * {@link #take(MessageSource, Subscription)}.
+     *
+     * @return the record, or null once the subscription is cancelled or the log has stopped and been read.
+     */
+    private LogRecord<T> take(Subscription subscription) {
+        if (!subscription.isPooled()) {
+            return log.take();
+        }
+        try {
+            while (subscription.beginWait()) {
+                LogRecord<T> record;
+                try {
+                    record = log.take(CANCELLABLE_WAIT_NANOS, TimeUnit.NANOSECONDS);
+                } finally {
+                    subscription.endWait();
+                }
+                if (record != null || (!log.getIsRunning() && log.size() == 0)) {
+                    return record;
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            if (!subscription.isCancelled()) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Runs a subscriber as a task on the topic's subscriber executor until its source has stopped and been drained.
+     */
+    private void startTask(MessageSource<T> source, Subscription subscription, BooleanSupplier step) {
+        new SubscriberTask(source, source == shared, subscription, step,
+                () -> !source.getIsRunning() && source.size() == 0, null).start();
+    }
+
+    /**
+     * Runs a consumer group member as a task on the topic's subscriber executor. Reassigning the member's partitions
+     * submits it again, since partitions it takes over may already hold messages.
+     */
+    private void startTask(ConsumerGroup.Member member, Subscription subscription, int maxBatch,
+            Consumer<List<T>> handler) {
+        List<T> batch = new ArrayList<>(maxBatch);
+        SubscriberTask task = new SubscriberTask(partitions, false, subscription,
+                () -> group.consumeAvailable(member, maxBatch, batch, handler), () -> group.leaveIfFinished(member),
+                () -> group.leave(member));
+        member.onRebalance(task::signal);
+        task.start();
+    }
+
+    /**
+     * Runs a subscriber loop on its own thread according to the topic's subscriber execution and reports when the
+     * loop exits. Threads started by the topic are named after it.
+     * A subscriber that throws completes the topic exceptionally, and its broadcast cursor is detached so it no
+     * longer holds back publishers.
+     */
+    private void startSubscriber(MessageSource<T> source, Runnable loop) {
+        Runnable task = () -> {
+            try {
+                loop.run();
+            } catch (RuntimeException | Error e) {
+                if (source != shared) {
+                    source.stop();
+                }
+                subscriberExited(e);
+                throw e;
+            }
+            subscriberExited(null);
+        };
+        String threadName;
+        synchronized (this) {
+            threadName = name + "-subscriber-" + subscribers;
+        }
+        if (subscriberExecution == SubscriberExecution.VIRTUAL_THREAD) {
+            Thread.ofVirtual().name(threadName).start(task);
+        } else {
+            Thread.ofPlatform().name(threadName).start(task);
+        }
+    }
+
+    /**
+     * Records each message's latency from its arrival in the input until a subscriber has processed it in the topic's
+     * metrics, e.g. for messages a producer read with a {@link Input.TailingReader}. The arrival time travels with the
+     * message and is read with the given function once the subscriber returns; a message whose arrival time is
+     * negative, e.g. one that was never stamped or was decoded from a durable topic's log, is not recorded. On
+     * broadcast topics the latency is recorded once per subscriber. Set this before publishing.
+     *
+     * @param arrivalTime returns the {@link System#nanoTime()} value when a message arrived, or -1 if unknown.
+     */
+    public void trackArrivals(ToLongFunction<? super T> arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    /**
+     * Records that a subscriber has processed a message.
+     *
+     * @param startNanos the {@link System#nanoTime()} value when the subscriber was called.
+     */
+    void recordProcessed(SubscriberMetrics subscriberMetrics, T message, long startNanos) {
+        subscriberMetrics.record(1, startNanos);
+        ToLongFunction<? super T> arrivals = arrivalTime;
+        if (arrivals != null) {
+            metrics.recordArrival(arrivals.applyAsLong(message));
+        }
+    }
+
+    /**
+     * Records that a subscriber has processed a batch of messages.
+     *
+     * @param startNanos the {@link System#nanoTime()} value when the subscriber was called.
+     */
+    private void recordProcessed(SubscriberMetrics subscriberMetrics, List<T> batch, long startNanos) {
+        subscriberMetrics.record(batch.size(), startNanos);
+        ToLongFunction<? super T> arrivals = arrivalTime;
+        if (arrivals != null) {
+            for (T message : batch) {
+                metrics.recordArrival(arrivals.applyAsLong(message));
+            }
+        }
+    }
+
+    /**
+     * Registers a publisher on the topic.
+     * Once publishers have been registered, the topic only stops after every one of them has called stopPublishing.
+     * Topics backed by an SPSC queue accept a single publisher.
+     *
+     * @throws IllegalStateException if the topic is single-producer and already has a publisher.
+     */
+    public synchronized void registerPublisher() {
+        if (queueType == QueueType.SPSC && publishers > 0) {
+            throw new IllegalStateException("Single-producer topic already has a publisher");
+        }
+        publishers++;
+        activePublishers++;
+    }
+
+    /**
+     * Signals that a publisher has finished publishing to the topic.
+     * The topic stops when its last registered publisher finishes, or immediately if none were registered.
+     * Its subscribers then drain the messages still queued and exit.
+     */
+    public void stopPublishing() {
+        synchronized (this) {
+            if (--activePublishers > 0) {
+                return;
+            }
+        }
+        queue.stop();
+        firePublished();
+        SubscriberTask task;
+        while ((task = idleTasks.poll()) != null) {
+            task.signal();
+        }
+        synchronized (this) {
+            if (activeSubscribers == 0) {
+                completion.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Signals that a publisher has finished publishing to the topic, possibly because it failed.
+     * A failure completes the topic exceptionally, so whoever awaits the topic sees the error instead of waiting for
+     * messages that will never be published.
+     *
+     * @param error the error the publisher failed with, or null if it finished normally.
+     */
+    public void stopPublishing(Throwable error) {
+        if (error != null) {
+            completion.completeExceptionally(error);
+        }
+        stopPublishing();
+    }
+
+    /**
+     * Checks if publishing has stopped for the topic.
+     *
+     * @return true if publishing has stopped, false otherwise.
+     */
+    public boolean hasStoppedPublishing() {
+        return !queue.getIsRunning();
+    }
+
+    /**
+     * Returns a future that completes once the topic has stopped and every subscriber has processed its last
+     * message and exited.
+     *
+     * @return a future completed when the topic has been fully processed, or completed exceptionally if a
+     *         subscriber failed.
+     */
+    public CompletableFuture<Void> awaitCompletion() {
+        return completion;
+    }
+
+    /**
+     * Returns the offset the next message published to a durable topic will get. It counts every message in the
+     * topic's log, including those published before a restart, so a publisher replaying deterministic input can
+     * skip the messages that are already logged.
+     *
+     * @return the end offset of the topic's log, or 0 if the topic is not durable.
+     */
+    public long getEndOffset() {
+        return log == null ? 0 : log.getEndOffset();
+    }
+
+    /**
+     * @return the queue publishers add to.
+     */
+    MessageSink<T> getQueue() {
+        return queue;
+    }
+
+    /**
+     * @return the topic's log, or null if the topic is not durable.
+     */
+    DurableLog<T> getLog() {
+        return log;
+    }
+
+    public TopicMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Registers a new subscriber on this topic.
+     *
+     * @return what the subscriber should consume from: a new cursor on broadcast topics, the shared queue otherwise.
+     * @throws IllegalStateException if the topic is single-consumer and already has a subscriber.
+     */
+    synchronized MessageSource<T> addSubscriber() {
+        if (queueType == QueueType.SPSC && subscribers > 0) {
+            throw new IllegalStateException("Single-consumer topic already has a subscriber");
+        }
+        subscribers++;
+        activeSubscribers++;
+        return ring != null ? ring.newCursor() : shared;
+    }
+
+    /**
+     * Records that a subscriber loop has exited, completing the topic when the last one does.
+     */
+    synchronized void subscriberExited(Throwable error) {
+        activeSubscribers--;
+        if (error != null) {
+            completion.completeExceptionally(error);
+        } else if (activeSubscribers == 0 && !queue.getIsRunning()) {
+            completion.complete(null);
+        }
+    }
+
+    /**
+     * A subscriber run on the topic's subscriber executor. Instead of holding a thread while the topic is empty, it
+     * processes what is available and returns its thread, and is submitted again when new messages arrive or the
+     * topic stops, and when its subscription is cancelled. Runs are serialized by a work-in-progress counter, so a
+     * signal that arrives while a run is in progress makes that run loop again instead of being lost. A run that keeps
+     * finding messages is submitted again after a bounded number of steps, so busy subscribers take turns on the
+     * executor's threads.
+     * Every message on a broadcast cursor or a group member's partitions may be for that subscriber, so those are
+     * signalled by every publish. Subscribers of the shared queue instead park themselves on the topic's idle list,
+     * and a publish wakes only one of them; a subscriber that finds more queued than it took wakes the next, much as
+     * the two-lock queue cascades its signals.
+     * A subscriber the executor rejects, or whose step throws, completes the topic exceptionally.
+     */
+    private class SubscriberTask implements Runnable {
+        private final MessageSource<T> source;
+        private final boolean wakesOne;
+        private final Subscription subscription;
+        private final BooleanSupplier step;
+        private final BooleanSupplier finished;
+        private final Runnable onExit;
+        private final Runnable listener = this::signal;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        /**
+         * @param source       what the subscriber consumes from, stopped when the task ends unless shared.
+         * @param wakesOne     true if the subscriber takes from the shared queue and is woken through the idle list.
+         * @param subscription the subscription that can cancel the subscriber.
+         * @param step         processes one message or batch without waiting, returning false if none was available.
+         * @param finished     tells whether the topic has stopped and everything for this subscriber was processed.
+         * @param onExit       run once when the task ends, or null.
+         */
+        SubscriberTask(MessageSource<T> source, boolean wakesOne, Subscription subscription, BooleanSupplier step,
+                BooleanSupplier finished, Runnable onExit) {
+            this.source = source;
+            this.wakesOne = wakesOne;
+            this.subscription = subscription;
+            this.step = step;
+            this.finished = finished;
+            this.onExit = onExit;
+        }
+
+        /**
+         * Submits the first run.
+         *
+         * @throws RejectedExecutionException if the executor does not accept it.
+         */
+        void start() {
+            if (!wakesOne) {
+                addPublishListener(listener);
+            }
+            subscription.onCancel(listener);
+            wip.incrementAndGet();
+            try {
+                subscriberExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                finish(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Submits a run unless one is already in progress, in which case that run loops once more.
+         *
+         * @return false if the task has ended.
+         */
+        boolean signal() {
+            if (done.get()) {
+                return false;
+            }
+            if (wip.getAndIncrement() == 0) {
+                submit();
+            }
+            return true;
+        }
+
+        private void submit() {
+            try {
+                subscriberExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                finish(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                int missed = wip.get();
+                while (!done.get()) {
+                    int steps = 0;
+                    while (steps < TASK_STEPS && !subscription.isCancelled() && step.getAsBoolean()) {
+                        if (steps++ == 0 && wakesOne && !idleTasks.isEmpty() && source.size() > 0) {
+                            wakeIdleTask();
+                        }
+                    }
+                    if (subscription.isCancelled() || finished.getAsBoolean()) {
+                        finish(null);
+                        return;
+                    }
+                    if (steps == TASK_STEPS) {
+                        // Signals that arrive meanwhile only raise the counter, which the next run starts from.
+                        submit();
+                        return;
+                    }
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        if (wakesOne) {
+                            idleTasks.add(this);
+                            // A publish that looked for an idle subscriber before this one was listed woke nobody.
+                            if (source.size() > 0 || !source.getIsRunning()) {
+                                wakeIdleTask();
+                            }
+                        }
+                        return;
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                finish(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Ends the task once, detaching it from the topic and reporting the subscriber's exit.
+         */
+        private void finish(Throwable error) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            removePublishListener(listener);
+            if (source != shared) {
+                source.stop();
+            }
+            if (onExit != null) {
+                onExit.run();
+            }
+            if (wakesOne && source.size() > 0) {
+                // This subscriber may have taken the wake-up meant for a message it will not process.
+                wakeIdleTask();
+            }
+            subscriberExited(error);
+        }
+    }
+}
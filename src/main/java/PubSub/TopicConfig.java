@@ -0,0 +1,319 @@
+package PubSub;
+
+import Codec.Codec;
+import DataStructures.Queue.QueueType;
+import DataStructures.Queue.Wait.WaitStrategyType;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Describes how a PubSub topic is set up when it is created.
+ * Setters return this config so options can be chained.
+ */
+public class TopicConfig {
+    private QueueType queueType = null;
+    private int capacity = 25;
+    private WaitStrategyType waitStrategy = null;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private Consumer<Object> rejectionHandler = null;
+    private Path spillDirectory = null;
+    private Codec<?> codec = null;
+    private Path logDirectory = null;
+    private boolean broadcast = false;
+    private int partitions = 0;
+    private SubscriberExecution subscriberExecution = SubscriberExecution.PLATFORM_THREAD;
+    private ExecutorService subscriberExecutor = null;
+    private int publishers = 0;
+    private int subscribers = 0;
+
+    public TopicConfig() {
+    }
+
+    /**
+     * Sets the queue implementation the topic is backed by.
+     *
+     * @param queueType the queue implementation.
+     * @return this config.
+     */
+    public TopicConfig queueType(QueueType queueType) {
+        this.queueType = queueType;
+        return this;
+    }
+
+    /**
+     * Declares how many publisher threads and subscribers the topic will have.
+     * When no queue type is set, a topic with exactly one publisher and one subscriber is backed by an SPSC queue.
+     *
+     * @param publishers  the number of publisher threads, or 0 if unknown.
+     * @param subscribers the number of subscribers, or 0 if unknown.
+     * @return this config.
+     */
+    public TopicConfig expect(int publishers, int subscribers) {
+        this.publishers = publishers;
+        this.subscribers = subscribers;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of messages the topic buffers before publishers block.
+     *
+     * @param capacity the queue capacity.
+     * @return this config.
+     */
+    public TopicConfig capacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Sets how publishers and subscribers wait while the topic's queue is full or empty.
+     * Only the lock-free queue types and broadcast rings use a wait strategy, so a topic with a wait strategy and no
+     * queue type is backed by the lock-free queue. Creating a topic with a wait strategy and a monitor-based queue
+     * type, or a spilling or durable topic with a wait strategy, fails.
+     *
+     * @param waitStrategy the wait strategy, or null for the queue's default.
+     * @return this config.
+     */
+    public TopicConfig waitStrategy(WaitStrategyType waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * Sets what the topic does with a published message when its queue is full.
+     * Discarding the oldest message needs a second consumer of the queue, so it cannot be combined with an SPSC queue.
+     *
+     * @param overflowPolicy the overflow policy.
+     * @return this config.
+     */
+    public TopicConfig overflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Rejects messages published while the topic's queue is full, handing each of them to the given handler.
+     * The handler runs on the publishing thread.
+     *
+     * @param rejectionHandler the handler called with every rejected message.
+     * @return this config.
+     */
+    public TopicConfig rejectWith(Consumer<Object> rejectionHandler) {
+        this.overflowPolicy = OverflowPolicy.REJECT;
+        this.rejectionHandler = rejectionHandler;
+        return this;
+    }
+
+    /**
+     * Sets the codec used whenever the topic's messages leave the heap, instead of the codec registered for the
+     * topic's message class.
+     *
+     * @param codec the codec.
+     * @param <T>   the type of the topic's messages.
+     * @return this config.
+     */
+    public <T> TopicConfig codec(Codec<T> codec) {
+        this.codec = codec;
+        return this;
+    }
+
+    /**
+     * Spills messages published while the topic's in-memory buffer is full to memory-mapped files in the given
+     * directory, using the codec registered for the topic's message class.
+     *
+     * @param directory the directory spill files are created in.
+     * @return this config.
+     * @see #spillTo(Path, Codec)
+     */
+    public TopicConfig spillTo(Path directory) {
+        this.overflowPolicy = OverflowPolicy.SPILL;
+        this.spillDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Spills messages published while the topic's in-memory buffer is full to memory-mapped files in the given
+     * directory instead of blocking the publisher. Spilled messages are read back in order once subscribers catch up,
+     * so the capacity only bounds how many messages stay on the heap. The queue type is ignored for spilling topics.
+     *
+     * @param directory the directory spill files are created in.
+     * @param codec     the codec used to write messages to disk and read them back.
+     * @param <T>       the type of the topic's messages.
+     * @return this config.
+     */
+    public <T> TopicConfig spillTo(Path directory, Codec<T> codec) {
+        this.overflowPolicy = OverflowPolicy.SPILL;
+        this.spillDirectory = directory;
+        this.codec = codec;
+        return this;
+    }
+
+    /**
+     * Makes the topic durable, using the codec registered for the topic's message class.
+     *
+     * @param directory the directory holding the topic's log.
+     * @return this config.
+     * @see #durable(Path, Codec)
+     */
+    public TopicConfig durable(Path directory) {
+        this.logDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Makes the topic durable: published messages are appended to a segmented, memory-mapped log in the given
+     * directory, and publishing returns once a message is on disk. Subscribers commit each message's offset after
+     * processing it, and a topic created again on the same directory after a restart delivers the messages from the
+     * last committed offset on. The log is never full, so the capacity and queue type are ignored for durable topics.
+     *
+     * @param directory the directory holding the topic's log.
+     * @param codec     the codec used to write messages to the log and read them back.
+     * @param <T>       the type of the topic's messages.
+     * @return this config.
+     */
+    public <T> TopicConfig durable(Path directory, Codec<T> codec) {
+        this.logDirectory = directory;
+        this.codec = codec;
+        return this;
+    }
+
+    /**
+     * Delivers every message to every subscriber instead of to exactly one.
+     * The topic is backed by a single shared ring read through one cursor per subscriber, and publishers wait for
+     * the slowest subscriber once it is a full capacity behind. The queue type is ignored for broadcast topics.
+     *
+     * @return this config.
+     */
+    public TopicConfig broadcast() {
+        this.broadcast = true;
+        return this;
+    }
+
+    /**
+     * Splits the topic into partitions consumed by a consumer group.
+     * Keyed messages always go to the partition their key hashes to, and each partition is owned by one subscriber
+     * at a time, so messages with the same key are processed in order even with several subscribers.
+     * Partitions are reassigned whenever a subscriber joins or leaves. The capacity applies to each partition.
+     *
+     * @param partitions the number of partitions.
+     * @return this config.
+     */
+    public TopicConfig partitions(int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitions);
+        }
+        this.partitions = partitions;
+        return this;
+    }
+
+    /**
+     * Sets how the topic runs its subscriber loops.
+     * Use {@link #subscriberExecutor} to run them on an executor service.
+     *
+     * @param subscriberExecution dedicated platform threads or one virtual thread per subscriber.
+     * @return this config.
+     */
+    public TopicConfig subscriberExecution(SubscriberExecution subscriberExecution) {
+        if (subscriberExecution == SubscriberExecution.EXECUTOR && subscriberExecutor == null) {
+            throw new IllegalArgumentException("Use subscriberExecutor to run subscribers on an executor");
+        }
+        this.subscriberExecution = subscriberExecution;
+        return this;
+    }
+
+    /**
+     * Runs the topic's subscribers as tasks on the given executor service.
+     * A subscriber never waits on the topic: its task processes the messages available and returns its thread, and
+     * is submitted again when messages are published, so any number of subscribers, on any number of topics, share
+     * the executor's threads. A subscriber the executor rejects completes the topic exceptionally, and subscribing
+     * throws the rejection. The executor is not shut down by the topic.
+     *
+     * @param subscriberExecutor the executor service the subscriber loops are submitted to.
+     * @return this config.
+     */
+    public TopicConfig subscriberExecutor(ExecutorService subscriberExecutor) {
+        this.subscriberExecution = SubscriberExecution.EXECUTOR;
+        this.subscriberExecutor = subscriberExecutor;
+        return this;
+    }
+
+    /**
+     * Returns the queue implementation the topic is backed by.
+     * If none was set, the SPSC queue is chosen for single-publisher/single-subscriber topics, and the lock-free queue
+     * for other topics with a wait strategy. Otherwise topics with virtual-thread subscribers use the two-lock queue,
+     * whose waits release the carrier thread, and every other topic uses the array queue.
+     *
+     * @return the queue implementation.
+     */
+    public QueueType getQueueType() {
+        if (queueType != null) {
+            return queueType;
+        }
+        if (publishers == 1 && subscribers == 1) {
+            return QueueType.SPSC;
+        }
+        if (waitStrategy != null) {
+            return QueueType.LOCK_FREE;
+        }
+        return subscriberExecution == SubscriberExecution.VIRTUAL_THREAD ? QueueType.TWO_LOCK : QueueType.ARRAY;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public WaitStrategyType getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public Consumer<Object> getRejectionHandler() {
+        return rejectionHandler;
+    }
+
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * @return the codec set for the topic, or null to use the codec registered for its message class.
+     */
+    public Codec<?> getCodec() {
+        return codec;
+    }
+
+    public boolean isDurable() {
+        return logDirectory != null;
+    }
+
+    public Path getLogDirectory() {
+        return logDirectory;
+    }
+
+    public boolean isBroadcast() {
+        return broadcast;
+    }
+
+    /**
+     * @return the number of partitions, or 0 if the topic is not partitioned.
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public SubscriberExecution getSubscriberExecution() {
+        return subscriberExecution;
+    }
+
+    public ExecutorService getSubscriberExecutor() {
+        return subscriberExecutor;
+    }
+}
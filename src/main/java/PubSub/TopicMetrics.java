@@ -0,0 +1,142 @@
+package PubSub;
+
+import DataStructures.Queue.MessageSink;
+import DataStructures.Queue.QueueMetrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A live view of a topic's traffic: publish and consume counts, queue depth, time publishers and subscribers spent
+ * blocked, and per-subscriber processing time.
+ * Values are read from counters that are updated concurrently, so a snapshot of several values is not atomic.
+ */
+public class TopicMetrics {
+    private final String topic;
+    private final MessageSink<?> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder arrivalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxArrivalLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final List<SubscriberMetrics> subscribers = new CopyOnWriteArrayList<>();
+
+    TopicMetrics(String topic, MessageSink<?> queue) {
+        this.topic = topic;
+        this.queue = queue;
+    }
+
+    SubscriberMetrics addSubscriber() {
+        SubscriberMetrics metrics = new SubscriberMetrics(topic + "-subscriber-" + subscribers.size());
+        subscribers.add(metrics);
+        return metrics;
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Records the latency of a message from its arrival in the input until a subscriber has processed it. Called by
+     * the topic once the subscriber returns, for topics that track arrivals, see {@link Topic#trackArrivals}.
+     *
+     * @param arrivalNanos the {@link System#nanoTime()} value when the message arrived, or -1 if unknown.
+     */
+    void recordArrival(long arrivalNanos) {
+        if (arrivalNanos < 0) {
+            return;
+        }
+        long latency = System.nanoTime() - arrivalNanos;
+        arrivals.increment();
+        arrivalLatencyNanos.add(latency);
+        maxArrivalLatencyNanos.accumulate(latency);
+    }
+
+    /**
+     * @return the number of messages added to the topic's queue.
+     */
+    public long getPublished() {
+        return queue.getMetrics().getEnqueued();
+    }
+
+    /**
+     * @return the number of messages handed to the topic's subscribers.
+     */
+    public long getConsumed() {
+        long consumed = 0;
+        for (SubscriberMetrics subscriber : subscribers) {
+            consumed += subscriber.getProcessed();
+        }
+        return consumed;
+    }
+
+    /**
+     * @return the number of messages discarded or rejected by the topic's overflow policy.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public long getHighWaterMark() {
+        return queue.getMetrics().getHighWaterMark();
+    }
+
+    /**
+     * @return the total time publishers spent waiting for the topic's queue to have space.
+     */
+    public long getBlockedFullNanos() {
+        return queue.getMetrics().getBlockedFullNanos();
+    }
+
+    /**
+     * @return the total time subscribers spent waiting for the topic's queue to have a message.
+     */
+    public long getBlockedEmptyNanos() {
+        return queue.getMetrics().getBlockedEmptyNanos();
+    }
+
+    /**
+     * @return the number of processed messages whose arrival latency was recorded, once per subscriber on broadcast
+     *         topics.
+     */
+    public long getArrivals() {
+        return arrivals.sum();
+    }
+
+    /**
+     * @return the mean time from a message's arrival in the input until a subscriber had processed it, or 0 if none
+     *         was recorded.
+     */
+    public long getMeanArrivalLatencyNanos() {
+        long count = arrivals.sum();
+        return count == 0 ? 0 : arrivalLatencyNanos.sum() / count;
+    }
+
+    /**
+     * @return the longest time from a message's arrival in the input until a subscriber had processed it.
+     */
+    public long getMaxArrivalLatencyNanos() {
+        return maxArrivalLatencyNanos.get();
+    }
+
+    public List<SubscriberMetrics> getSubscribers() {
+        return List.copyOf(subscribers);
+    }
+
+    @Override
+    public String toString() {
+        String summary = topic + ": published " + getPublished() + ", consumed " + getConsumed() + ", dropped "
+                + getDropped() + ", high water mark " + getHighWaterMark() + ", blocked full "
+                + getBlockedFullNanos() / 1_000_000 + "ms, blocked empty " + getBlockedEmptyNanos() / 1_000_000 + "ms";
+        if (getArrivals() == 0) {
+            return summary;
+        }
+        return summary + ", arrival latency mean " + getMeanArrivalLatencyNanos() / 1_000 + "us, max "
+                + getMaxArrivalLatencyNanos() / 1_000 + "us";
+    }
+}
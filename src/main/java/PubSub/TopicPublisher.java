@@ -0,0 +1,182 @@
+package PubSub;
+
+import DataStructures.Log.DurableLog;
+import DataStructures.Log.LogRecord;
+import DataStructures.Queue.MessageSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adapts a topic to {@link Flow.Publisher}.
+ * A Flow subscription never waits on the topic's queue. It takes messages with non-blocking removes while its
+ * subscriber has outstanding demand, and is rescheduled on the executor by the topic's publish hook when new
+ * messages arrive or the topic stops. Deliveries to one subscriber are serialized by a work-in-progress counter,
+ * so a signal that arrives while a drain is running makes that drain loop again instead of being lost.
+ * On durable topics each message is acknowledged only once {@code onNext} has returned, so a message whose delivery
+ * failed is delivered again after a restart.
+ *
+ * @param <T> the type of the messages.
+ */
+class TopicPublisher<T> implements Flow.Publisher<T> {
+    private final Topic<T> topic;
+    private final Executor executor;
+
+    TopicPublisher(Topic<T> topic, Executor executor) {
+        this.topic = topic;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        MessageSource<T> source;
+        try {
+            source = topic.addSubscriber();
+        } catch (IllegalStateException e) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(e);
+            return;
+        }
+        FlowSubscription subscription = new FlowSubscription(subscriber, source, topic.getMetrics().addSubscriber());
+        topic.addPublishListener(subscription.listener);
+        subscriber.onSubscribe(subscription);
+        subscription.signal();
+    }
+
+    /**
+     * One Flow subscriber's demand on the topic.
+     */
+    private class FlowSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final MessageSource<T> source;
+        private final DurableLog<T> log;
+        private final List<LogRecord<T>> records = new ArrayList<>(1);
+        private final SubscriberMetrics metrics;
+        private final Runnable listener;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Throwable invalidRequest = null;
+
+        FlowSubscription(Flow.Subscriber<? super T> subscriber, MessageSource<T> source, SubscriberMetrics metrics) {
+            this.subscriber = subscriber;
+            this.source = source;
+            this.log = topic.getLog();
+            this.metrics = metrics;
+            this.listener = this::signal;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " items; demand must be positive");
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            finish(null, false);
+        }
+
+        /**
+         * Schedules a drain unless one is already running, in which case that drain loops once more.
+         */
+        void signal() {
+            if (!done.get() && wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (done.get()) {
+                    return;
+                }
+                if (invalidRequest != null) {
+                    finish(invalidRequest, true);
+                    return;
+                }
+                long delivered = 0;
+                long requested = demand.get();
+                while (delivered < requested && !done.get()) {
+                    LogRecord<T> record = null;
+                    T value;
+                    if (log != null) {
+                        if (log.drainRecords(records, 1) == 0) {
+                            break;
+                        }
+                        record = records.get(0);
+                        records.clear();
+                        value = record.getValue();
+                    } else {
+                        value = source.tryRemove();
+                        if (value == null) {
+                            break;
+                        }
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        subscriber.onNext(value);
+                    } catch (RuntimeException | Error e) {
+                        finish(e, false);
+                        return;
+                    }
+                    topic.recordProcessed(metrics, value, start);
+                    if (record != null) {
+                        log.acknowledge(record.getOffset());
+                    }
+                    delivered++;
+                }
+                if (delivered > 0) {
+                    demand.addAndGet(-delivered);
+                }
+                if (!source.getIsRunning() && source.size() == 0) {
+                    finish(null, true);
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Ends the subscription once, detaching it from the topic and reporting to the subscriber when asked to.
+         */
+        private void finish(Throwable error, boolean notify) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            topic.removePublishListener(listener);
+            if (source != topic.getQueue()) {
+                source.stop();
+            }
+            if (notify) {
+                if (error != null) {
+                    subscriber.onError(error);
+                } else {
+                    subscriber.onComplete();
+                }
+            }
+            topic.subscriberExited(notify ? null : error);
+        }
+    }
+}
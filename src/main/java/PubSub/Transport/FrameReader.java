@@ -0,0 +1,47 @@
+package PubSub.Transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads frames from a blocking channel, filling a reusable buffer with as many bytes as each read returns so
+ * several small frames are usually read with a single call. Frames longer than {@link Frames#DEFAULT_MAX_FRAME_SIZE}
+ * are rejected.
+ */
+class FrameReader {
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(Frames.BUFFER_SIZE).flip();
+
+    FrameReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the next frame, positioned at its type byte. The frame is only valid until the next call.
+     *
+     * @return the frame, or null if the channel ended between frames.
+     * @throws IOException if the channel fails, ends inside a frame or sends a frame with an invalid length.
+     */
+    ByteBuffer next() throws IOException {
+        while (true) {
+            ByteBuffer frame = Frames.next(buffer, Frames.DEFAULT_MAX_FRAME_SIZE);
+            if (frame != null) {
+                return frame;
+            }
+            if (buffer.remaining() >= Integer.BYTES) {
+                buffer = Frames.ensureFits(buffer, Integer.BYTES + buffer.getInt(buffer.position()));
+            }
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                if (buffer.hasRemaining()) {
+                    throw new EOFException("Connection closed inside a frame");
+                }
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package PubSub.Transport;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The wire format shared by the topic server and its clients.
+ * Every frame is {@code [int length][byte type][body]}, where length counts the type byte and the body.
+ * A connection carries a single role: its first frame opens either a publisher or a subscriber on one topic.
+ */
+final class Frames {
+    /** Client to server: publish to a topic. Body: topic name. */
+    static final byte OPEN_PUBLISH = 1;
+    /** Client to server: subscribe to a topic. Body: topic name, int initial credits. */
+    static final byte OPEN_SUBSCRIBE = 2;
+    /** Either direction: one message. Body: the message encoded by the topic's codec. */
+    static final byte MESSAGE = 3;
+    /** Either direction: permission to send more messages. Body: int number of messages. */
+    static final byte CREDIT = 4;
+    /** Client to server: the publisher has finished. No body. */
+    static final byte STOP = 5;
+    /** Server to client: the topic has completed and no more messages will follow. No body. */
+    static final byte COMPLETE = 6;
+    /** Server to client: the request failed. Body: error message. */
+    static final byte ERROR = 7;
+
+    static final int HEADER = Integer.BYTES + 1;
+    static final int BUFFER_SIZE = 64 * 1024;
+    /** The largest frame length accepted unless the server is configured otherwise. */
+    static final int DEFAULT_MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private Frames() {
+    }
+
+    /**
+     * Returns the next complete frame in the buffer, positioned after its type byte, and advances the buffer past it.
+     * The length is checked as soon as it has been received, so a corrupt or hostile length is rejected before any
+     * buffer is grown for it.
+     *
+     * @param buffer       a buffer in read mode.
+     * @param maxFrameSize the largest frame length accepted.
+     * @return a view of the frame's type and body, or null if the buffer does not hold a complete frame.
+     * @throws ProtocolException if the frame's length is below 1 or above maxFrameSize.
+     */
+    static ByteBuffer next(ByteBuffer buffer, int maxFrameSize) throws ProtocolException {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < 1 || length > maxFrameSize) {
+            throw new ProtocolException("Invalid frame length " + length + ", expected 1 to " + maxFrameSize);
+        }
+        if (buffer.remaining() < Integer.BYTES + length) {
+            return null;
+        }
+        ByteBuffer frame = buffer.slice(buffer.position() + Integer.BYTES, length);
+        buffer.position(buffer.position() + Integer.BYTES + length);
+        return frame;
+    }
+
+    /**
+     * Returns a buffer in read mode holding the same unread bytes with room for a frame of the given size, which
+     * must already have been checked by {@link #next}.
+     */
+    static ByteBuffer ensureFits(ByteBuffer buffer, int frameSize) {
+        if (buffer.capacity() >= frameSize) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(frameSize, buffer.capacity() * 2));
+        larger.put(buffer);
+        larger.flip();
+        return larger;
+    }
+
+    static void putHeader(ByteBuffer buffer, byte type, int bodyLength) {
+        buffer.putInt(1 + bodyLength);
+        buffer.put(type);
+    }
+
+    static ByteBuffer control(byte type, int value) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER + Integer.BYTES);
+        putHeader(frame, type, Integer.BYTES);
+        frame.putInt(value);
+        return frame.flip();
+    }
+
+    static ByteBuffer empty(byte type) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER);
+        putHeader(frame, type, 0);
+        return frame.flip();
+    }
+
+    static ByteBuffer text(byte type, String text, int trailingInt) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int body = Integer.BYTES + bytes.length + (trailingInt >= 0 ? Integer.BYTES : 0);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER + body);
+        putHeader(frame, type, body);
+        frame.putInt(bytes.length).put(bytes);
+        if (trailingInt >= 0) {
+            frame.putInt(trailingInt);
+        }
+        return frame.flip();
+    }
+
+    static String getText(ByteBuffer frame) {
+        byte[] bytes = new byte[frame.getInt()];
+        frame.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
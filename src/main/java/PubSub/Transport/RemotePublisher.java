@@ -0,0 +1,140 @@
+package PubSub.Transport;
+
+import Codec.Codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Publishes to a topic served by a {@link TopicServer} in another process.
+ * Messages are encoded into a local buffer and written in batches: when the buffer fills, when the publisher runs
+ * out of credits, or on {@link #flush()}. Each message needs a credit from the server, so a publisher that gets
+ * ahead of the topic waits for credits instead of filling the server's memory.
+ *
+ * @param <T> the type of the messages.
+ */
+public class RemotePublisher<T> implements Closeable {
+    private final SocketChannel channel;
+    private final Codec<T> codec;
+    private final Semaphore credits = new Semaphore(0);
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private ByteBuffer out = ByteBuffer.allocate(Frames.BUFFER_SIZE);
+    private volatile String error = null;
+    private volatile boolean closed = false;
+
+    /**
+     * Connects to the server and registers as a publisher of the topic.
+     *
+     * @param address the server's address.
+     * @param topic   the name of the topic.
+     * @param codec   the codec the topic is exposed with.
+     * @throws IOException if the connection cannot be made.
+     */
+    public RemotePublisher(SocketAddress address, String topic, Codec<T> codec) throws IOException {
+        this.channel = SocketChannel.open(address);
+        this.codec = codec;
+        Frames.writeFully(channel, Frames.text(Frames.OPEN_PUBLISH, topic, -1));
+        Thread.ofVirtual().name("remote-publisher-" + topic).start(this::readCredits);
+    }
+
+    /**
+     * Receives credits until the server finishes the connection. Waiting publishers are released if it fails.
+     */
+    private void readCredits() {
+        FrameReader reader = new FrameReader(channel);
+        try {
+            ByteBuffer frame;
+            while ((frame = reader.next()) != null) {
+                byte type = frame.get();
+                if (type == Frames.CREDIT) {
+                    credits.release(frame.getInt());
+                } else if (type == Frames.ERROR) {
+                    error = Frames.getText(frame);
+                } else if (type == Frames.COMPLETE) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            error = e.getMessage();
+        } finally {
+            if (error == null && !closed) {
+                error = "Connection closed by the server";
+            }
+            credits.release(Integer.MAX_VALUE / 2);
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Publishes a message, waiting for a credit if none is left.
+     *
+     * @param value the message to be published.
+     * @throws IOException if the connection has failed or the server rejected the publisher.
+     */
+    public synchronized void publish(T value) throws IOException {
+        if (!credits.tryAcquire()) {
+            flush();
+            try {
+                credits.acquire();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+        if (error != null) {
+            throw new IOException(error);
+        }
+        int size = codec.encodedSize(value);
+        if (out.remaining() < Frames.HEADER + size) {
+            flush();
+            if (out.capacity() < Frames.HEADER + size) {
+                out = ByteBuffer.allocate(Frames.HEADER + size);
+            }
+        }
+        Frames.putHeader(out, Frames.MESSAGE, size);
+        codec.encode(value, out);
+    }
+
+    /**
+     * Writes every buffered message to the server.
+     *
+     * @throws IOException if the connection fails.
+     */
+    public synchronized void flush() throws IOException {
+        out.flip();
+        Frames.writeFully(channel, out);
+        out.clear();
+    }
+
+    /**
+     * Flushes, tells the server this publisher has finished, and waits for the server to confirm that every message
+     * has been added to the topic before closing the connection.
+     *
+     * @throws IOException if the connection fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (channel.isOpen() && finished.getCount() > 0) {
+                out.flip();
+                ByteBuffer stop = Frames.empty(Frames.STOP);
+                Frames.writeFully(channel, out);
+                Frames.writeFully(channel, stop);
+                finished.await();
+            }
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        } finally {
+            channel.close();
+        }
+    }
+}
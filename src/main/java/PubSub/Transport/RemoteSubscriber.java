@@ -0,0 +1,109 @@
+package PubSub.Transport;
+
+import Codec.Codec;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Subscribes to a topic served by a {@link TopicServer} in another process.
+ * The subscriber starts with a number of credits and grants more as it processes messages, half the initial amount
+ * at a time, so the server keeps it supplied without ever sending more than it can hold.
+ * Messages are handed to the consumer on a reader thread in the order they arrive.
+ *
+ * @param <T> the type of the messages.
+ */
+public class RemoteSubscriber<T> implements Closeable {
+    private final SocketChannel channel;
+    private final Codec<T> codec;
+    private final Consumer<? super T> subscriber;
+    private final int credits;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * Connects to the server and subscribes to the topic.
+     *
+     * @param address    the server's address.
+     * @param topic      the name of the topic.
+     * @param codec      the codec the topic is exposed with.
+     * @param subscriber the consumer called with every message.
+     * @param credits    the number of messages the server may send ahead of processing.
+     * @throws IOException if the connection cannot be made.
+     */
+    public RemoteSubscriber(SocketAddress address, String topic, Codec<T> codec, Consumer<? super T> subscriber,
+            int credits) throws IOException {
+        if (credits <= 0) {
+            throw new IllegalArgumentException("Credits must be positive: " + credits);
+        }
+        this.channel = SocketChannel.open(address);
+        this.codec = codec;
+        this.subscriber = subscriber;
+        this.credits = credits;
+        Frames.writeFully(channel, Frames.text(Frames.OPEN_SUBSCRIBE, topic, credits));
+        Thread.ofVirtual().name("remote-subscriber-" + topic).start(this::receive);
+    }
+
+    private void receive() {
+        FrameReader reader = new FrameReader(channel);
+        int refill = Math.max(1, credits / 2);
+        int processed = 0;
+        boolean canGrant = true;
+        try {
+            ByteBuffer frame;
+            while ((frame = reader.next()) != null) {
+                byte type = frame.get();
+                if (type == Frames.MESSAGE) {
+                    subscriber.accept(codec.decode(frame));
+                    if (++processed == refill && canGrant) {
+                        try {
+                            Frames.writeFully(channel, Frames.control(Frames.CREDIT, processed));
+                        } catch (IOException e) {
+                            // The server closes its side once the topic completes; the remaining frames can
+                            // still be read.
+                            canGrant = false;
+                        }
+                        processed = 0;
+                    }
+                } else if (type == Frames.COMPLETE) {
+                    completion.complete(null);
+                    return;
+                } else if (type == Frames.ERROR) {
+                    completion.completeExceptionally(new IOException(Frames.getText(frame)));
+                    return;
+                }
+            }
+            completion.completeExceptionally(new EOFException("Connection closed before the topic completed"));
+        } catch (IOException | RuntimeException e) {
+            completion.completeExceptionally(e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The subscription has already ended.
+            }
+        }
+    }
+
+    /**
+     * Returns a future completed once the remote topic has completed and every message has been processed.
+     *
+     * @return the completion future.
+     */
+    public CompletableFuture<Void> awaitCompletion() {
+        return completion;
+    }
+
+    /**
+     * Cancels the subscription by closing the connection.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,509 @@
+package PubSub.Transport;
+
+import Codec.Codec;
+import PubSub.Topic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ProtocolException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves PubSub topics to other processes over TCP or Unix domain sockets.
+ * A single selector thread accepts connections, reads frames and writes whatever frames have been queued for each
+ * connection with one write call, so many small messages share a system call.
+ * Flow control is credit based on both sides:
+ * <ul>
+ * <li>A remote publisher starts with as many credits as the topic's capacity and may only send a message per
+ * credit. The server adds messages to the topic without blocking and returns a credit for each message the topic
+ * has accepted, so messages waiting on the server never exceed the topic's capacity.</li>
+ * <li>A remote subscriber grants credits as it processes messages. The credits become demand on the topic's
+ * {@link java.util.concurrent.Flow.Publisher} adapter, so the server never takes more messages off the topic
+ * than the subscriber is ready for.</li>
+ * </ul>
+ * A connection that sends a malformed frame, or whose messages fail to decode, is sent an error and closed; any other
+ * failure while serving a connection closes that connection only, so one client cannot stop the server.
+ */
+public class TopicServer implements Closeable {
+    private static final long RETRY_MILLIS = 1;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Map<String, Exposed<?>> topics = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Connection> writeRequests = new ConcurrentLinkedQueue<>();
+    private final Set<Connection> blockedPublishers = new HashSet<>();
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread selectorThread;
+    private final int maxFrameSize;
+    private volatile boolean running = true;
+
+    /**
+     * Binds the server and starts its selector thread, accepting frames of up to 16 MiB.
+     *
+     * @param address an {@link java.net.InetSocketAddress} such as the loopback address, or a
+     *                {@link UnixDomainSocketAddress}.
+     * @throws IOException if the server cannot be bound.
+     */
+    public TopicServer(SocketAddress address) throws IOException {
+        this(address, Frames.DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Binds the server and starts its selector thread.
+     *
+     * @param address      an {@link java.net.InetSocketAddress} such as the loopback address, or a
+     *                     {@link UnixDomainSocketAddress}.
+     * @param maxFrameSize the largest frame a client may send, in bytes, which bounds the buffer kept per connection.
+     * @throws IOException if the server cannot be bound.
+     */
+    public TopicServer(SocketAddress address, int maxFrameSize) throws IOException {
+        if (maxFrameSize < 1) {
+            throw new IllegalArgumentException("Maximum frame size must be positive: " + maxFrameSize);
+        }
+        this.maxFrameSize = maxFrameSize;
+        this.selector = Selector.open();
+        this.server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = Thread.ofPlatform().name("topic-server").start(this::run);
+    }
+
+    /**
+     * Makes a topic available to remote publishers and subscribers under its name.
+     *
+     * @param <T>   the type of the topic's messages.
+     * @param topic the topic.
+     * @param codec the codec messages are sent with.
+     */
+    public <T> void expose(Topic<T> topic, Codec<T> codec) {
+        topics.put(topic.getName(), new Exposed<>(topic, codec));
+    }
+
+    /**
+     * Makes a topic available to remote publishers and subscribers under its name, sending messages with the topic's
+     * own codec.
+     *
+     * @param <T>   the type of the topic's messages.
+     * @param topic the topic.
+     * @throws IllegalArgumentException if the topic has no codec.
+     */
+    public <T> void expose(Topic<T> topic) {
+        if (topic.getCodec() == null) {
+            throw new IllegalArgumentException("Topic " + topic.getName() + " has no codec");
+        }
+        expose(topic, topic.getCodec());
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(blockedPublishers.isEmpty() ? 0 : RETRY_MILLIS);
+                Connection pending;
+                while ((pending = writeRequests.poll()) != null) {
+                    try {
+                        pending.flush();
+                    } catch (RuntimeException e) {
+                        pending.close();
+                    }
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (RuntimeException e) {
+                        connection.close();
+                    }
+                }
+                selector.selectedKeys().clear();
+                for (Connection connection : blockedPublishers.toArray(new Connection[0])) {
+                    try {
+                        ((PublisherSession<?>) connection.session).drain();
+                    } catch (RuntimeException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Accepts a pending connection. A connection that cannot be set up is dropped without affecting the others.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        } catch (IOException e) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Stops the selector thread and closes every connection. Remote publishers still connected are stopped on their
+     * topics, and remote subscriptions are cancelled.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection) {
+                connection.close();
+            }
+        }
+        SocketAddress address = server.getLocalAddress();
+        server.close();
+        selector.close();
+        deliveries.shutdown();
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+        }
+    }
+
+    private record Exposed<T>(Topic<T> topic, Codec<T> codec) {
+    }
+
+    /**
+     * What a connection does once its first frame has been read.
+     */
+    private interface Session {
+        void onFrame(byte type, ByteBuffer body);
+
+        void onDisconnect();
+    }
+
+    /**
+     * A client connection. Frames are queued into an outbound buffer by any thread and written by the selector
+     * thread, which registers for writability only while the socket cannot take everything queued.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(Frames.BUFFER_SIZE).flip();
+        private ByteBuffer out = ByteBuffer.allocate(Frames.BUFFER_SIZE);
+        private boolean writeQueued = false;
+        private boolean closeAfterFlush = false;
+        private Session session = null;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() {
+            int read;
+            try {
+                in.compact();
+                read = channel.read(in);
+                in.flip();
+            } catch (IOException e) {
+                read = -1;
+            }
+            if (read < 0) {
+                close();
+                return;
+            }
+            try {
+                ByteBuffer frame;
+                while (key.isValid() && (frame = Frames.next(in, maxFrameSize)) != null) {
+                    byte type = frame.get();
+                    if (session != null) {
+                        session.onFrame(type, frame);
+                    } else {
+                        open(type, frame);
+                    }
+                }
+                if (in.remaining() >= Integer.BYTES) {
+                    in = Frames.ensureFits(in, Integer.BYTES + in.getInt(in.position()));
+                }
+            } catch (ProtocolException | RuntimeException e) {
+                // Nothing after a bad frame can be trusted, so the rest of the input is dropped.
+                in = ByteBuffer.allocate(0);
+                if (key.isValid()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                    fail(e instanceof ProtocolException ? e.getMessage() : "Malformed frame: " + e);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void open(byte type, ByteBuffer body) {
+            String name = Frames.getText(body);
+            Exposed<Object> exposed = (Exposed<Object>) topics.get(name);
+            if (exposed == null || (type != Frames.OPEN_PUBLISH && type != Frames.OPEN_SUBSCRIBE)) {
+                fail(exposed == null ? "Unknown topic: " + name : "Unexpected frame type: " + type);
+                return;
+            }
+            try {
+                if (type == Frames.OPEN_PUBLISH) {
+                    exposed.topic().registerPublisher();
+                    session = new PublisherSession<>(this, exposed);
+                    send(Frames.control(Frames.CREDIT, exposed.topic().getCapacity()));
+                } else {
+                    SubscriberSession<Object> subscriber = new SubscriberSession<>(this, exposed.codec(), body.getInt());
+                    session = subscriber;
+                    exposed.topic().asPublisher(deliveries).subscribe(subscriber);
+                }
+            } catch (IllegalStateException e) {
+                fail(e.getMessage());
+            }
+        }
+
+        void fail(String message) {
+            synchronized (this) {
+                closeAfterFlush = true;
+            }
+            send(Frames.text(Frames.ERROR, message, -1));
+        }
+
+        void send(ByteBuffer frame) {
+            synchronized (this) {
+                ensureOutbound(frame.remaining());
+                out.put(frame);
+                requestWrite();
+            }
+        }
+
+        <T> void sendMessage(Codec<T> codec, T value) {
+            synchronized (this) {
+                int size = codec.encodedSize(value);
+                ensureOutbound(Frames.HEADER + size);
+                Frames.putHeader(out, Frames.MESSAGE, size);
+                codec.encode(value, out);
+                requestWrite();
+            }
+        }
+
+        void sendAndClose(ByteBuffer frame) {
+            synchronized (this) {
+                closeAfterFlush = true;
+            }
+            send(frame);
+        }
+
+        private void ensureOutbound(int size) {
+            if (out.remaining() < size) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + size));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+        }
+
+        /**
+         * Hands the connection to the selector thread unless a write is already pending. Must hold the monitor.
+         */
+        private void requestWrite() {
+            if (!writeQueued) {
+                writeQueued = true;
+                writeRequests.add(this);
+                selector.wakeup();
+            }
+        }
+
+        void flush() {
+            boolean close;
+            synchronized (this) {
+                if (!key.isValid()) {
+                    return;
+                }
+                try {
+                    out.flip();
+                    channel.write(out);
+                    out.compact();
+                } catch (IOException e) {
+                    out.clear();
+                    closeAfterFlush = true;
+                }
+                if (out.position() > 0) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                writeQueued = false;
+                close = closeAfterFlush;
+            }
+            if (close) {
+                close();
+            }
+        }
+
+        void close() {
+            if (session != null) {
+                session.onDisconnect();
+                session = null;
+            }
+            blockedPublishers.remove(this);
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The connection is being discarded either way.
+            }
+        }
+    }
+
+    /**
+     * A remote publisher. Received messages wait in a queue no longer than the credits granted and are moved into
+     * the topic as it accepts them, from the selector thread and without blocking.
+     */
+    private class PublisherSession<T> implements Session {
+        private final Connection connection;
+        private final Exposed<T> exposed;
+        private final ArrayDeque<T> pending = new ArrayDeque<>();
+        private boolean stopRequested = false;
+        private boolean stopped = false;
+
+        PublisherSession(Connection connection, Exposed<T> exposed) {
+            this.connection = connection;
+            this.exposed = exposed;
+        }
+
+        @Override
+        public void onFrame(byte type, ByteBuffer body) {
+            if (type == Frames.MESSAGE) {
+                pending.add(exposed.codec().decode(body));
+            } else if (type == Frames.STOP) {
+                stopRequested = true;
+            }
+            drain();
+        }
+
+        void drain() {
+            int published = 0;
+            try {
+                while (!pending.isEmpty() && exposed.topic().offer(pending.peek(), 0, TimeUnit.NANOSECONDS)) {
+                    pending.poll();
+                    published++;
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            if (published > 0) {
+                connection.send(Frames.control(Frames.CREDIT, published));
+            }
+            if (!pending.isEmpty()) {
+                blockedPublishers.add(connection);
+                return;
+            }
+            blockedPublishers.remove(connection);
+            if (stopRequested && !stopped) {
+                stopped = true;
+                exposed.topic().stopPublishing();
+                connection.sendAndClose(Frames.empty(Frames.COMPLETE));
+            }
+        }
+
+        /**
+         * A publisher that disconnects without stopping is stopped so the topic can still complete. Messages it sent
+         * that the topic had not accepted yet are lost.
+         */
+        @Override
+        public void onDisconnect() {
+            if (!stopped) {
+                stopped = true;
+                exposed.topic().stopPublishing();
+            }
+        }
+    }
+
+    /**
+     * A remote subscriber, fed by the topic's Flow adapter on the delivery executor.
+     */
+    private static class SubscriberSession<T> implements Session, Flow.Subscriber<T> {
+        private final Connection connection;
+        private final Codec<T> codec;
+        private final int initialCredits;
+        private volatile Flow.Subscription subscription;
+
+        SubscriberSession(Connection connection, Codec<T> codec, int initialCredits) {
+            this.connection = connection;
+            this.codec = codec;
+            this.initialCredits = initialCredits;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialCredits);
+        }
+
+        @Override
+        public void onNext(T item) {
+            connection.sendMessage(codec, item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            connection.fail(String.valueOf(throwable.getMessage()));
+        }
+
+        @Override
+        public void onComplete() {
+            connection.sendAndClose(Frames.empty(Frames.COMPLETE));
+        }
+
+        @Override
+        public void onFrame(byte type, ByteBuffer body) {
+            if (type == Frames.CREDIT && subscription != null) {
+                subscription.request(body.getInt());
+            }
+        }
+
+        @Override
+        public void onDisconnect() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
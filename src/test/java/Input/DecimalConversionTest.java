@@ -0,0 +1,124 @@
+package Input;
+
+import Model.Task.CoordinateTask;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the coordinate parser's decimal conversion bit for bit against {@link Double#parseDouble}, both through
+ * {@link DecimalConversion} directly and through {@link CoordinatesParser}, which falls back to
+ * {@link Double#parseDouble} whenever the conversion returns NaN.
+ */
+class DecimalConversionTest {
+    private static final long SEED = 0x5EED_D0B1EL;
+
+    /**
+     * Exact halfway cases, which must round to even, and their neighbours one unit either side.
+     */
+    private static final String[] HALFWAY = {
+            "9007199254740993", "9007199254740995", "9007199254740992", "9007199254740994",
+            "4503599627370496.5", "4503599627370497.5", "2251799813685248.25", "2251799813685248.75",
+            "9007199254740993e10", "9007199254740993e-10", "1.00000000000000011102230246251565404236316680908203125",
+            "1.00000000000000011102230246251565404236316680908203124",
+            "1.00000000000000011102230246251565404236316680908203126",
+            "1.7976931348623158e308", "1.7976931348623157e308", "1.797693134862315807e308",
+            "8.988465674311580536566680e307", "0.500000000000000166533453693773481063544750213623046875"
+    };
+
+    /**
+     * Values at or below the smallest normal double, which the conversion hands back to {@link Double#parseDouble},
+     * and values that underflow to zero or overflow to infinity.
+     */
+    private static final String[] LIMITS = {
+            "4.9e-324", "4.9406564584124654e-324", "2.4703282292062327e-324", "2.4703282292062328e-324",
+            "1e-310", "2.2250738585072011e-308", "2.2250738585072012e-308", "2.2250738585072014e-308",
+            "2.225073858507201e-308", "1e-320", "1e-400", "9999999999999999999e-343", "1e309", "1.8e308",
+            "0", "0.0", "-0.0", "0e400", "-1e-400", "-1e309", "123456789012345678901234567890e-400"
+    };
+
+    @Test
+    void convertsHalfwayCasesLikeParseDouble() {
+        for (String text : HALFWAY) {
+            assertParsesLikeParseDouble(text);
+            assertParsesLikeParseDouble("-" + text);
+        }
+    }
+
+    @Test
+    void convertsSubnormalAndOutOfRangeValuesLikeParseDouble() {
+        for (String text : LIMITS) {
+            assertParsesLikeParseDouble(text);
+        }
+        assertTrue(Double.isNaN(DecimalConversion.toDouble(49, -325, false)));
+        assertTrue(Double.isNaN(DecimalConversion.toDouble(22250738585072011L, -324, false)));
+    }
+
+    @Test
+    void convertsRandomDoublesLikeParseDouble() {
+        Random random = new Random(SEED);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            texts.add(Double.toString(value));
+            texts.add(String.format("%.17e", value));
+            texts.add(String.format("%.20e", value));
+            double coordinate = (random.nextDouble() - 0.5) * 1e6;
+            texts.add(Double.toString(coordinate));
+            texts.add(String.format("%.15f", coordinate));
+            texts.add(String.format("%.25f", coordinate));
+        }
+        assertParseLikeParseDouble(texts);
+    }
+
+    @Test
+    void returnsParseDoubleBitsOrNaNForRandomSignificands() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 200_000; i++) {
+            long significand = switch (i % 3) {
+                case 0 -> random.nextLong();
+                case 1 -> random.nextLong() >>> random.nextInt(64);
+                default -> (1L << 53) + random.nextInt(1 << 12);
+            };
+            int power = random.nextInt(700) - 360;
+            double value = DecimalConversion.toDouble(significand, power, false);
+            if (!Double.isNaN(value)) {
+                String text = Long.toUnsignedString(significand) + "e" + power;
+                assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)), Double.doubleToRawLongBits(value),
+                        text);
+            }
+        }
+    }
+
+    private static void assertParsesLikeParseDouble(String text) {
+        assertParseLikeParseDouble(List.of(text));
+    }
+
+    /**
+     * Parses the texts as the x coordinates of tasks without related points and compares each with
+     * {@link Double#parseDouble}.
+     */
+    private static void assertParseLikeParseDouble(List<String> texts) {
+        StringBuilder input = new StringBuilder();
+        for (String text : texts) {
+            input.append(text).append(", 0\n");
+        }
+        CoordinatesParser parser = new CoordinatesParser(
+                ByteBuffer.wrap(input.toString().getBytes(StandardCharsets.US_ASCII)), 0);
+        for (String text : texts) {
+            CoordinateTask task = parser.next();
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)), Double.doubleToRawLongBits(task.getX()),
+                    text);
+        }
+    }
+}